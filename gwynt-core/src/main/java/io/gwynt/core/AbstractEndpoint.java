@@ -1,16 +1,23 @@
 package io.gwynt.core;
 
+import io.gwynt.core.pipeline.PipelineTemplate;
 import io.gwynt.core.scheduler.EventScheduler;
 
-import java.util.ArrayList;
+import java.nio.channels.spi.SelectorProvider;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class AbstractEndpoint implements Endpoint {
 
-    protected List<IoHandler> ioHandlers = new ArrayList<>();
+    protected List<IoHandler> ioHandlers = new CopyOnWriteArrayList<>();
     protected IoSessionFactory ioSessionFactory;
     protected EventScheduler eventScheduler;
+    protected SelectorProvider selectorProvider = SelectorProvider.provider();
+    protected volatile int writeBufferLowWaterMark = 32 * 1024;
+    protected volatile int writeBufferHighWaterMark = 64 * 1024;
+    private final Object lock = new Object();
+    private volatile PipelineTemplate pipelineTemplate = new PipelineTemplate(ioHandlers);
 
     @Override
     public Endpoint addHandler(IoHandler ioHandler) {
@@ -18,7 +25,10 @@ public abstract class AbstractEndpoint implements Endpoint {
             throw new IllegalArgumentException("filter");
         }
 
-        ioHandlers.add(ioHandler);
+        synchronized (lock) {
+            ioHandlers.add(ioHandler);
+            pipelineTemplate = new PipelineTemplate(ioHandlers);
+        }
         return this;
     }
 
@@ -28,7 +38,10 @@ public abstract class AbstractEndpoint implements Endpoint {
             throw new IllegalArgumentException("filter");
         }
 
-        ioHandlers.remove(ioHandler);
+        synchronized (lock) {
+            ioHandlers.remove(ioHandler);
+            pipelineTemplate = new PipelineTemplate(ioHandlers);
+        }
         return this;
     }
 
@@ -37,6 +50,14 @@ public abstract class AbstractEndpoint implements Endpoint {
         return Collections.unmodifiableList(ioHandlers);
     }
 
+    /**
+     * Template is rebuilt under lock by each handler change and published as a whole, so sessions never see stale or partial template
+     */
+    @Override
+    public PipelineTemplate getPipelineTemplate() {
+        return pipelineTemplate;
+    }
+
     @Override
     public IoSessionFactory getSessionFactory() {
         return ioSessionFactory;
@@ -67,4 +88,40 @@ public abstract class AbstractEndpoint implements Endpoint {
         return this;
     }
 
+    @Override
+    public SelectorProvider getSelectorProvider() {
+        return selectorProvider;
+    }
+
+    @Override
+    public Endpoint setSelectorProvider(SelectorProvider selectorProvider) {
+        if (selectorProvider == null) {
+            throw new IllegalArgumentException("selectorProvider");
+        }
+
+        this.selectorProvider = selectorProvider;
+        return this;
+    }
+
+    @Override
+    public int getWriteBufferHighWaterMark() {
+        return writeBufferHighWaterMark;
+    }
+
+    @Override
+    public int getWriteBufferLowWaterMark() {
+        return writeBufferLowWaterMark;
+    }
+
+    @Override
+    public Endpoint setWriteBufferWaterMarks(int lowWaterMark, int highWaterMark) {
+        if (lowWaterMark < 0 || highWaterMark < lowWaterMark) {
+            throw new IllegalArgumentException("waterMarks");
+        }
+
+        writeBufferLowWaterMark = lowWaterMark;
+        writeBufferHighWaterMark = highWaterMark;
+        return this;
+    }
+
 }
@@ -33,8 +33,28 @@ public abstract class AbstractIoHandler<I, O> implements IoHandler<I, O> {
     }
 
     @Override
-    public void onMessageSent(IoHandlerContext context, O message) {
-        context.fireMessageSent(message);
+    public void onReadComplete(IoHandlerContext context) {
+        context.fireReadComplete();
+    }
+
+    @Override
+    public void onMessageSent(IoHandlerContext context, O message, WriteCallback callback) {
+        context.fireMessageSent(message, callback);
+    }
+
+    @Override
+    public void onFlush(IoHandlerContext context) {
+        context.fireFlush();
+    }
+
+    @Override
+    public void onWritabilityChanged(IoHandlerContext context) {
+        context.fireWritabilityChanged();
+    }
+
+    @Override
+    public void onUserEvent(IoHandlerContext context, Object event) {
+        context.fireUserEvent(event);
     }
 
     @Override
@@ -0,0 +1,61 @@
+package io.gwynt.core;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Typed key of {@link io.gwynt.core.IoSession} attribute. <br/>
+ * Each key gets dense integer id when it is created, so sessions keep attributes in small array indexed by the id.
+ * Keys should be created once and kept in static fields.
+ *
+ * @param <T> type of attribute value
+ */
+public final class AttributeKey<T> {
+
+    private static final AtomicInteger nextId = new AtomicInteger();
+    private static final ConcurrentMap<String, AttributeKey<?>> keys = new ConcurrentHashMap<>();
+
+    private final int id;
+    private final String name;
+
+    private AttributeKey(int id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Returns key with given name, creating it if it does not exist yet
+     *
+     * @param name unique name of key, e.g. qualified name of class which uses it
+     * @return key with given name
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> AttributeKey<T> valueOf(String name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name");
+        }
+        AttributeKey<T> key = (AttributeKey<T>) keys.get(name);
+        if (key == null) {
+            AttributeKey<T> newKey = new AttributeKey<>(nextId.getAndIncrement(), name);
+            key = (AttributeKey<T>) keys.putIfAbsent(name, newKey);
+            if (key == null) {
+                key = newKey;
+            }
+        }
+        return key;
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
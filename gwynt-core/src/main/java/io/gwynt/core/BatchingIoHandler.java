@@ -0,0 +1,63 @@
+package io.gwynt.core;
+
+import io.gwynt.core.pipeline.IoHandlerContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects messages received in single read burst and passes them to {@link #onMessagesReceived(IoHandlerContext, java.util.List)} at once
+ * when {@link #onReadComplete(IoHandlerContext)} arrives, so responses to the whole burst can be produced together and flushed once. <br/>
+ * Handler is stateful, so new instance should be added to each session, e.g. by {@link io.gwynt.core.IoSessionInitializer}.
+ * Messages still collected when session closes or handler is removed are passed along one by one.
+ *
+ * @param <I> type of inbound message
+ * @param <O> type of outbound message
+ */
+public abstract class BatchingIoHandler<I, O> extends AbstractIoHandler<I, O> {
+
+    private final List<I> batch = new ArrayList<>();
+
+    /**
+     * Called with messages received since previous read complete event, list is reused after method returns
+     *
+     * @param context  {@link io.gwynt.core.pipeline.IoHandlerContext}
+     * @param messages messages in order they were received
+     */
+    protected abstract void onMessagesReceived(IoHandlerContext context, List<I> messages);
+
+    @Override
+    public void onMessageReceived(IoHandlerContext context, I message) {
+        batch.add(message);
+    }
+
+    @Override
+    public void onReadComplete(IoHandlerContext context) {
+        if (!batch.isEmpty()) {
+            try {
+                onMessagesReceived(context, batch);
+            } finally {
+                batch.clear();
+            }
+        }
+        super.onReadComplete(context);
+    }
+
+    @Override
+    public void onClose(IoHandlerContext context) {
+        flushBatch(context);
+        super.onClose(context);
+    }
+
+    @Override
+    public void onHandlerRemoved(IoHandlerContext context) {
+        flushBatch(context);
+    }
+
+    private void flushBatch(IoHandlerContext context) {
+        for (I message : batch) {
+            context.fireMessageReceived(message);
+        }
+        batch.clear();
+    }
+}
@@ -1,7 +1,10 @@
 package io.gwynt.core;
 
+import io.gwynt.core.pipeline.PipelineTemplate;
 import io.gwynt.core.scheduler.EventScheduler;
 
+import java.nio.channels.spi.SelectorProvider;
+
 public interface Endpoint {
 
     /**
@@ -27,6 +30,14 @@ public interface Endpoint {
      */
     Iterable<IoHandler> getHandlers();
 
+    /**
+     * Retrieve immutable chain of attached {@link IoHandler}s which is shared by pipelines of all new {@link IoSession}s.
+     * Template is rebuilt after handlers are added or removed.
+     *
+     * @return current pipeline template
+     */
+    PipelineTemplate getPipelineTemplate();
+
     /**
      * Get specific {@link IoSessionFactory} implementation
      *
@@ -57,6 +68,45 @@ public interface Endpoint {
      */
     Endpoint setScheduler(EventScheduler eventScheduler);
 
+    /**
+     * Returns {@link java.nio.channels.spi.SelectorProvider} which opens channels and selectors of this {@link Endpoint}
+     *
+     * @return current {@link java.nio.channels.spi.SelectorProvider}
+     */
+    SelectorProvider getSelectorProvider();
+
+    /**
+     * Set specific {@link java.nio.channels.spi.SelectorProvider} implementation, e.g. one backed by native transport.
+     * Takes effect on next {@link #bind(int)}
+     *
+     * @param selectorProvider {@link java.nio.channels.spi.SelectorProvider} implementation
+     * @return current {@link Endpoint}
+     */
+    Endpoint setSelectorProvider(SelectorProvider selectorProvider);
+
+    /**
+     * Returns amount of queued outbound bytes after which {@link IoSession} becomes not writable
+     *
+     * @return high water mark in bytes
+     */
+    int getWriteBufferHighWaterMark();
+
+    /**
+     * Returns amount of queued outbound bytes below which not writable {@link IoSession} becomes writable again
+     *
+     * @return low water mark in bytes
+     */
+    int getWriteBufferLowWaterMark();
+
+    /**
+     * Set outbound water marks for all {@link IoSession}s
+     *
+     * @param lowWaterMark  low water mark in bytes
+     * @param highWaterMark high water mark in bytes
+     * @return current {@link Endpoint}
+     */
+    Endpoint setWriteBufferWaterMarks(int lowWaterMark, int highWaterMark);
+
     /**
      * Synchronously start listening incoming connections
      *
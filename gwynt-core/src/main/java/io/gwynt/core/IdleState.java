@@ -0,0 +1,22 @@
+package io.gwynt.core;
+
+/**
+ * User event fired by {@link io.gwynt.core.IdleStateHandler}
+ */
+public enum IdleState {
+
+    /**
+     * Nothing was read from session for reader idle time
+     */
+    READER_IDLE,
+
+    /**
+     * Nothing was written to session for writer idle time
+     */
+    WRITER_IDLE,
+
+    /**
+     * Nothing was read from or written to session for all idle time
+     */
+    ALL_IDLE
+}
@@ -0,0 +1,164 @@
+package io.gwynt.core;
+
+import io.gwynt.core.pipeline.IoHandlerContext;
+import io.gwynt.core.scheduler.Timeout;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires {@link io.gwynt.core.IdleState} user events when nothing was read from or written to {@link io.gwynt.core.IoSession} for configured time. <br/>
+ * Handler keeps single timeout per session which is rescheduled only when it expires, so reads and writes just record their time.
+ * Handler is stateful, so new instance should be added to each session, e.g. by {@link io.gwynt.core.IoSessionInitializer}.
+ * Write time is recorded when message passes the handler towards session.
+ */
+public class IdleStateHandler extends AbstractIoHandler<Object, Object> {
+
+    private final long readerIdleTime;
+    private final long writerIdleTime;
+    private final long allIdleTime;
+
+    private final Runnable checkTask = new Runnable() {
+        @Override
+        public void run() {
+            check();
+        }
+    };
+
+    private IoHandlerContext context;
+    private Timeout timeout;
+    private boolean started;
+
+    private long lastReadTime;
+    private long lastWriteTime;
+    private long lastReaderIdleTime;
+    private long lastWriterIdleTime;
+    private long lastAllIdleTime;
+
+    /**
+     * @param readerIdleTime time without reads before {@link io.gwynt.core.IdleState#READER_IDLE}, zero disables the event
+     * @param writerIdleTime time without writes before {@link io.gwynt.core.IdleState#WRITER_IDLE}, zero disables the event
+     * @param allIdleTime    time without reads and writes before {@link io.gwynt.core.IdleState#ALL_IDLE}, zero disables the event
+     */
+    public IdleStateHandler(long readerIdleTime, long writerIdleTime, long allIdleTime, TimeUnit unit) {
+        if (readerIdleTime < 0 || writerIdleTime < 0 || allIdleTime < 0) {
+            throw new IllegalArgumentException("idle time must not be negative");
+        }
+        this.readerIdleTime = unit.toNanos(readerIdleTime);
+        this.writerIdleTime = unit.toNanos(writerIdleTime);
+        this.allIdleTime = unit.toNanos(allIdleTime);
+    }
+
+    public long getReaderIdleTime(TimeUnit unit) {
+        return unit.convert(readerIdleTime, TimeUnit.NANOSECONDS);
+    }
+
+    public long getWriterIdleTime(TimeUnit unit) {
+        return unit.convert(writerIdleTime, TimeUnit.NANOSECONDS);
+    }
+
+    public long getAllIdleTime(TimeUnit unit) {
+        return unit.convert(allIdleTime, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onHandlerAdded(IoHandlerContext context) {
+        if (context.getIoSession().isRegistered()) {
+            start(context);
+        }
+    }
+
+    @Override
+    public void onHandlerRemoved(IoHandlerContext context) {
+        stop();
+    }
+
+    @Override
+    public void onRegistered(IoHandlerContext context) {
+        start(context);
+        super.onRegistered(context);
+    }
+
+    @Override
+    public void onUnregistered(IoHandlerContext context) {
+        stop();
+        super.onUnregistered(context);
+    }
+
+    @Override
+    public void onMessageReceived(IoHandlerContext context, Object message) {
+        lastReadTime = System.nanoTime();
+        super.onMessageReceived(context, message);
+    }
+
+    @Override
+    public void onMessageSent(IoHandlerContext context, Object message, WriteCallback callback) {
+        lastWriteTime = System.nanoTime();
+        super.onMessageSent(context, message, callback);
+    }
+
+    @Override
+    public void onClose(IoHandlerContext context) {
+        stop();
+        super.onClose(context);
+    }
+
+    private void start(IoHandlerContext context) {
+        if (started || (readerIdleTime == 0 && writerIdleTime == 0 && allIdleTime == 0)) {
+            return;
+        }
+        started = true;
+        this.context = context;
+
+        long now = System.nanoTime();
+        lastReadTime = lastWriteTime = now;
+        lastReaderIdleTime = lastWriterIdleTime = lastAllIdleTime = now;
+        timeout = context.schedule(checkTask, nextDelay(now), TimeUnit.NANOSECONDS);
+    }
+
+    private void stop() {
+        started = false;
+        if (timeout != null) {
+            timeout.cancel();
+            timeout = null;
+        }
+    }
+
+    private void check() {
+        if (!started) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (readerIdleTime > 0 && now - Math.max(lastReadTime, lastReaderIdleTime) >= readerIdleTime) {
+            lastReaderIdleTime = now;
+            context.fireUserEvent(IdleState.READER_IDLE);
+        }
+        if (writerIdleTime > 0 && now - Math.max(lastWriteTime, lastWriterIdleTime) >= writerIdleTime) {
+            lastWriterIdleTime = now;
+            context.fireUserEvent(IdleState.WRITER_IDLE);
+        }
+        if (allIdleTime > 0 && now - Math.max(Math.max(lastReadTime, lastWriteTime), lastAllIdleTime) >= allIdleTime) {
+            lastAllIdleTime = now;
+            context.fireUserEvent(IdleState.ALL_IDLE);
+        }
+
+        // Event handlers could have closed the session
+        if (started) {
+            timeout = context.schedule(checkTask, nextDelay(now), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private long nextDelay(long now) {
+        long delay = Long.MAX_VALUE;
+        if (readerIdleTime > 0) {
+            delay = Math.min(delay, readerIdleTime - (now - Math.max(lastReadTime, lastReaderIdleTime)));
+        }
+        if (writerIdleTime > 0) {
+            delay = Math.min(delay, writerIdleTime - (now - Math.max(lastWriteTime, lastWriterIdleTime)));
+        }
+        if (allIdleTime > 0) {
+            delay = Math.min(delay, allIdleTime - (now - Math.max(Math.max(lastReadTime, lastWriteTime), lastAllIdleTime)));
+        }
+        return Math.max(delay, 0);
+    }
+}
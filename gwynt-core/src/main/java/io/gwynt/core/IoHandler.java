@@ -7,7 +7,8 @@ import io.gwynt.core.pipeline.IoHandlerContext;
  * Each {@link IoHandler} processed in {@link IoHandler}'s thread. <br/>
  * Inbound events processed from first to last filter. Outbound events processed from last to first.
  *
- * @param <I> Type of inbound high-level message. First filter in {@link io.gwynt.core.pipeline.Pipeline} receives array of bytes.
+ * @param <I> Type of inbound high-level message. First filter in {@link io.gwynt.core.pipeline.Pipeline} receives {@link io.gwynt.core.util.PooledByteBuffer},
+ *            which must be released by the filter which consumes it. Messages reaching the end of {@link io.gwynt.core.pipeline.Pipeline} are released automatically.
  * @param <O> Type of outbound high-level message. Last filter in {@link io.gwynt.core.pipeline.Pipeline} should return array of bytes.
  */
 public interface IoHandler<I, O> {
@@ -55,13 +56,44 @@ public interface IoHandler<I, O> {
      */
     void onMessageReceived(IoHandlerContext context, I message);
 
+    /**
+     * Called once after all messages read from socket in single readiness burst were received,
+     * so handlers which aggregate messages or responses know when to process them
+     *
+     * @param context {@link IoHandlerContext}
+     */
+    void onReadComplete(IoHandlerContext context);
+
     /**
      * Called when outbound message sent
      *
+     * @param context  {@link IoHandlerContext}
+     * @param message  high level message
+     * @param callback {@link io.gwynt.core.WriteCallback} which should be passed along with message or its encoded form
+     */
+    void onMessageSent(IoHandlerContext context, O message, WriteCallback callback);
+
+    /**
+     * Called when outbound messages sent so far are requested to be written to socket
+     *
      * @param context {@link IoHandlerContext}
-     * @param message high level message
      */
-    void onMessageSent(IoHandlerContext context, O message);
+    void onFlush(IoHandlerContext context);
+
+    /**
+     * Called when {@link io.gwynt.core.IoSession#isWritable()} changes
+     *
+     * @param context {@link IoHandlerContext}
+     */
+    void onWritabilityChanged(IoHandlerContext context);
+
+    /**
+     * Called when user defined event, e.g. {@link io.gwynt.core.IdleState}, is fired through {@link io.gwynt.core.pipeline.Pipeline}
+     *
+     * @param context {@link IoHandlerContext}
+     * @param event   user defined event
+     */
+    void onUserEvent(IoHandlerContext context, Object event);
 
     /**
      * Called when {@link io.gwynt.core.IoSession} is requested to close
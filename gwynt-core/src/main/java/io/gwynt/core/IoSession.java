@@ -7,18 +7,83 @@ import java.net.SocketAddress;
 
 public interface IoSession extends Closeable {
 
+    /**
+     * Queues data for writing, data is not sent until {@link #flush()} is called
+     *
+     * @param data data to write
+     */
     void write(Object data);
 
+    /**
+     * Queues data for writing and notifies callback when it is written to socket or discarded. Data is not sent until {@link #flush()} is called.
+     *
+     * @param data     data to write
+     * @param callback {@link WriteCallback} implementation
+     */
+    void write(Object data, WriteCallback callback);
+
+    /**
+     * Makes all data queued so far eligible for sending, so several writes can be sent with single system call
+     */
+    void flush();
+
+    /**
+     * Shortcut for {@link #write(Object)} followed by {@link #flush()}
+     */
+    void writeAndFlush(Object data);
+
+    /**
+     * Shortcut for {@link #write(Object, WriteCallback)} followed by {@link #flush()}
+     */
+    void writeAndFlush(Object data, WriteCallback callback);
+
+    /**
+     * Closes session after all queued data, flushed or not, is written
+     */
     void close();
 
     IoSessionStatus getStatus();
 
     boolean isRegistered();
 
+    /**
+     * Returns true until amount of queued outbound bytes exceeds {@link Endpoint#getWriteBufferHighWaterMark()}.
+     * After that returns false until it drops below {@link Endpoint#getWriteBufferLowWaterMark()}.
+     *
+     * @return true if session accepts writes without excessive buffering
+     */
+    boolean isWritable();
+
     Object attach(Object attachment);
 
     Object attachment();
 
+    /**
+     * Returns attribute value without locking or allocation
+     *
+     * @param key attribute key
+     * @return attribute value or null if it is not set
+     */
+    <T> T getAttribute(AttributeKey<T> key);
+
+    /**
+     * Sets attribute value, null removes the attribute
+     *
+     * @param key   attribute key
+     * @param value new value
+     * @return previous value or null
+     */
+    <T> T setAttribute(AttributeKey<T> key, T value);
+
+    /**
+     * Sets attribute value unless attribute is already set
+     *
+     * @param key   attribute key
+     * @param value new value
+     * @return current value if attribute was already set, null otherwise
+     */
+    <T> T setAttributeIfAbsent(AttributeKey<T> key, T value);
+
     Pipeline getPipeline();
 
     Endpoint getEndpoint();
@@ -26,7 +26,7 @@ public class TcpEndpoint extends AbstractEndpoint {
         try {
             eventScheduler.start();
 
-            ServerSocketChannel channel = ServerSocketChannel.open();
+            ServerSocketChannel channel = selectorProvider.openServerSocketChannel();
             channel.configureBlocking(false);
             channel.socket().setSoTimeout(500);
             channel.socket().setReuseAddress(true);
@@ -41,10 +41,10 @@ public class TcpEndpoint extends AbstractEndpoint {
 
     @SuppressWarnings("unchecked")
     private void initialize(ServerSocketChannel channel) throws IOException {
-        DispatcherPool dispatcherPool = new NioDispatcherPool(ioSessionFactory);
+        DispatcherPool dispatcherPool = new NioDispatcherPool(ioSessionFactory, selectorProvider);
         this.dispatcherPool = dispatcherPool;
 
-        NioAcceptor acceptor = new NioAcceptor(dispatcherPool);
+        NioAcceptor acceptor = new NioAcceptor(dispatcherPool, selectorProvider);
         acceptor.setName("gwynt-tcp-acceptor");
         acceptor.start();
         this.acceptor = acceptor;
@@ -24,7 +24,7 @@ public class UdpEndpoint extends AbstractEndpoint {
         try {
             eventScheduler.start();
 
-            DatagramChannel channel = DatagramChannel.open(StandardProtocolFamily.INET);
+            DatagramChannel channel = selectorProvider.openDatagramChannel(StandardProtocolFamily.INET);
             channel.configureBlocking(false);
             channel.socket().setSoTimeout(500);
             channel.socket().setReuseAddress(true);
@@ -38,7 +38,7 @@ public class UdpEndpoint extends AbstractEndpoint {
 
     @SuppressWarnings("unchecked")
     private void initialize(DatagramChannel channel) throws IOException {
-        dispatcher = new NioDispatcher(ioSessionFactory);
+        dispatcher = new NioDispatcher(ioSessionFactory, selectorProvider);
         dispatcher.setName("gwynt-upd-dispatcher");
         dispatcher.start();
         dispatcher.register(channel);
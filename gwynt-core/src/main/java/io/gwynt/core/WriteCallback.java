@@ -0,0 +1,51 @@
+package io.gwynt.core;
+
+/**
+ * Receives result of {@link IoSession#write(Object, WriteCallback)}. <br/>
+ * Methods are called in dispatcher thread and should not block.
+ */
+public interface WriteCallback {
+
+    /**
+     * Shared callback for writes which result is not interesting
+     */
+    WriteCallback VOID = new WriteCallback() {
+        @Override
+        public void onComplete(IoSession session) {
+        }
+
+        @Override
+        public void onError(IoSession session, Throwable e) {
+        }
+    };
+
+    /**
+     * Shared callback which closes {@link IoSession} as soon as written data is flushed
+     */
+    WriteCallback CLOSE = new WriteCallback() {
+        @Override
+        public void onComplete(IoSession session) {
+            session.close();
+        }
+
+        @Override
+        public void onError(IoSession session, Throwable e) {
+            session.close();
+        }
+    };
+
+    /**
+     * Called when all bytes of written data were passed to socket
+     *
+     * @param session {@link IoSession} which data was written to
+     */
+    void onComplete(IoSession session);
+
+    /**
+     * Called when data could not be written, e.g. because {@link IoSession} was closed before data was flushed
+     *
+     * @param session {@link IoSession} which data was written to
+     * @param e       cause
+     */
+    void onError(IoSession session, Throwable e);
+}
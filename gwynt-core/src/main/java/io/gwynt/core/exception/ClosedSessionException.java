@@ -0,0 +1,8 @@
+package io.gwynt.core.exception;
+
+public class ClosedSessionException extends RuntimeException {
+
+    public ClosedSessionException() {
+        super("Session is closed");
+    }
+}
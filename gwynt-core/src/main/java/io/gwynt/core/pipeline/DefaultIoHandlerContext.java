@@ -2,14 +2,14 @@ package io.gwynt.core.pipeline;
 
 import io.gwynt.core.IoHandler;
 import io.gwynt.core.IoSession;
+import io.gwynt.core.WriteCallback;
+import io.gwynt.core.scheduler.Timeout;
 import io.gwynt.core.transport.AbstractIoSession;
 
+import java.util.concurrent.TimeUnit;
+
 public class DefaultIoHandlerContext implements IoHandlerContext {
 
-    volatile Runnable registeredEvent;
-    volatile Runnable unregisteredEvent;
-    volatile Runnable openEvent;
-    volatile Runnable closeEvent;
     volatile boolean removed = true;
 
     private volatile DefaultIoHandlerContext prev;
@@ -18,11 +18,21 @@ public class DefaultIoHandlerContext implements IoHandlerContext {
     private AbstractIoSession ioSession;
     private IoHandler ioHandler;
     private String name;
+    private final int mask;
 
     public DefaultIoHandlerContext(AbstractIoSession ioSession, IoHandler ioHandler) {
+        this(ioSession, ioHandler, new DefaultIoHandlerInvoker(ioSession.getScheduler()));
+    }
+
+    public DefaultIoHandlerContext(AbstractIoSession ioSession, IoHandler ioHandler, IoHandlerInvoker invoker) {
+        this(ioSession, ioHandler, invoker, IoHandlerMask.mask(ioHandler.getClass()));
+    }
+
+    DefaultIoHandlerContext(AbstractIoSession ioSession, IoHandler ioHandler, IoHandlerInvoker invoker, int mask) {
         this.ioSession = ioSession;
         this.ioHandler = ioHandler;
-        invoker = new DefaultIoHandlerInvoker(ioSession.getEndpoint().getScheduler());
+        this.invoker = invoker;
+        this.mask = mask;
     }
 
     @Override
@@ -65,65 +75,116 @@ public class DefaultIoHandlerContext implements IoHandlerContext {
     }
 
     public void fireOnAdded() {
-        getInvoker().invokeOnHandlerAdded(this);
+        if ((mask & IoHandlerMask.HANDLER_ADDED) != 0) {
+            getInvoker().invokeOnHandlerAdded(this);
+        }
     }
 
     public void fireOnRemoved() {
-        getInvoker().invokeOnHandlerRemoved(this);
+        if ((mask & IoHandlerMask.HANDLER_REMOVED) != 0) {
+            getInvoker().invokeOnHandlerRemoved(this);
+        }
     }
 
     @Override
     public IoHandlerContext fireOnRegistered() {
-        DefaultIoHandlerContext next = findContextInbound();
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.REGISTERED);
         next.getInvoker().invokeOnRegistered(next);
         return this;
     }
 
     @Override
     public IoHandlerContext fireOnUnregistered() {
-        DefaultIoHandlerContext next = findContextInbound();
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.UNREGISTERED);
         next.getInvoker().invokeOnUnregistered(next);
         return this;
     }
 
     @Override
     public IoHandlerContext fireOpen() {
-        DefaultIoHandlerContext next = findContextInbound();
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.OPEN);
         next.getInvoker().invokeOnOpen(next);
         return this;
     }
 
     @Override
     public IoHandlerContext fireMessageReceived(Object message) {
-        DefaultIoHandlerContext next = findContextInbound();
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.MESSAGE_RECEIVED);
         next.getInvoker().invokeOnMessageReceived(next, message);
         return this;
     }
 
+    @Override
+    public IoHandlerContext fireReadComplete() {
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.READ_COMPLETE);
+        next.getInvoker().invokeOnReadComplete(next);
+        return this;
+    }
+
     @Override
     public IoHandlerContext fireMessageSent(Object message) {
-        DefaultIoHandlerContext prev = findContextOutbound();
-        prev.getInvoker().invokeOnMessageSent(prev, message);
+        return fireMessageSent(message, WriteCallback.VOID);
+    }
+
+    @Override
+    public IoHandlerContext fireMessageSent(Object message, WriteCallback callback) {
+        if (callback == null) {
+            throw new IllegalArgumentException("callback");
+        }
+        DefaultIoHandlerContext prev = findContextOutbound(IoHandlerMask.MESSAGE_SENT);
+        prev.getInvoker().invokeOnMessageSent(prev, message, callback);
+        return this;
+    }
+
+    @Override
+    public IoHandlerContext fireFlush() {
+        DefaultIoHandlerContext prev = findContextOutbound(IoHandlerMask.FLUSH);
+        prev.getInvoker().invokeOnFlush(prev);
+        return this;
+    }
+
+    @Override
+    public IoHandlerContext fireMessageSentAndFlush(Object message) {
+        return fireMessageSentAndFlush(message, WriteCallback.VOID);
+    }
+
+    @Override
+    public IoHandlerContext fireMessageSentAndFlush(Object message, WriteCallback callback) {
+        fireMessageSent(message, callback);
+        return fireFlush();
+    }
+
+    @Override
+    public IoHandlerContext fireWritabilityChanged() {
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.WRITABILITY_CHANGED);
+        next.getInvoker().invokeOnWritabilityChanged(next);
+        return this;
+    }
+
+    @Override
+    public IoHandlerContext fireUserEvent(Object event) {
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.USER_EVENT);
+        next.getInvoker().invokeOnUserEvent(next, event);
         return this;
     }
 
     @Override
     public IoHandlerContext fireClosing() {
-        DefaultIoHandlerContext prev = findContextOutbound();
+        DefaultIoHandlerContext prev = findContextOutbound(IoHandlerMask.CLOSING);
         prev.getInvoker().invokeOnClosing(prev);
         return this;
     }
 
     @Override
     public IoHandlerContext fireClose() {
-        DefaultIoHandlerContext next = findContextInbound();
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.CLOSE);
         next.getInvoker().invokeOnClosed(next);
         return this;
     }
 
     @Override
     public IoHandlerContext fireExceptionCaught(Throwable e) {
-        DefaultIoHandlerContext next = findContextInbound();
+        DefaultIoHandlerContext next = findContextInbound(IoHandlerMask.EXCEPTION_CAUGHT);
         next.getInvoker().invokeOnExceptionCaught(next, e);
         return this;
     }
@@ -133,11 +194,29 @@ public class DefaultIoHandlerContext implements IoHandlerContext {
         return removed;
     }
 
-    private DefaultIoHandlerContext findContextInbound() {
-        return next;
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return ioSession.getScheduler().schedule(task, delay, unit);
     }
 
-    private DefaultIoHandlerContext findContextOutbound() {
-        return prev;
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return ioSession.getScheduler().scheduleAtFixedRate(task, initialDelay, period, unit);
+    }
+
+    private DefaultIoHandlerContext findContextInbound(int event) {
+        DefaultIoHandlerContext context = next;
+        while ((context.mask & event) == 0) {
+            context = context.next;
+        }
+        return context;
+    }
+
+    private DefaultIoHandlerContext findContextOutbound(int event) {
+        DefaultIoHandlerContext context = prev;
+        while ((context.mask & event) == 0) {
+            context = context.prev;
+        }
+        return context;
     }
 }
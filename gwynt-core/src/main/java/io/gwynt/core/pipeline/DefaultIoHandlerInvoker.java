@@ -1,6 +1,8 @@
 package io.gwynt.core.pipeline;
 
+import io.gwynt.core.WriteCallback;
 import io.gwynt.core.scheduler.EventScheduler;
+import io.gwynt.core.util.Recycler;
 
 public class DefaultIoHandlerInvoker implements IoHandlerInvoker {
 
@@ -59,10 +61,42 @@ public class DefaultIoHandlerInvoker implements IoHandlerInvoker {
         }
     }
 
+    private static void invokeOnReadCompleteNow(IoHandlerContext context) {
+        try {
+            context.getIoHandler().onReadComplete(context);
+        } catch (Throwable e) {
+            context.getIoHandler().onExceptionCaught(context, e);
+        }
+    }
+
     @SuppressWarnings("unchecked")
-    private static void invokeOnMessageSentNow(IoHandlerContext context, Object message) {
+    private static void invokeOnMessageSentNow(IoHandlerContext context, Object message, WriteCallback callback) {
         try {
-            context.getIoHandler().onMessageSent(context, message);
+            context.getIoHandler().onMessageSent(context, message, callback);
+        } catch (Throwable e) {
+            context.getIoHandler().onExceptionCaught(context, e);
+        }
+    }
+
+    private static void invokeOnFlushNow(IoHandlerContext context) {
+        try {
+            context.getIoHandler().onFlush(context);
+        } catch (Throwable e) {
+            context.getIoHandler().onExceptionCaught(context, e);
+        }
+    }
+
+    private static void invokeOnWritabilityChangedNow(IoHandlerContext context) {
+        try {
+            context.getIoHandler().onWritabilityChanged(context);
+        } catch (Throwable e) {
+            context.getIoHandler().onExceptionCaught(context, e);
+        }
+    }
+
+    private static void invokeOnUserEventNow(IoHandlerContext context, Object event) {
+        try {
+            context.getIoHandler().onUserEvent(context, event);
         } catch (Throwable e) {
             context.getIoHandler().onExceptionCaught(context, e);
         }
@@ -121,17 +155,12 @@ public class DefaultIoHandlerInvoker implements IoHandlerInvoker {
         if (scheduler.inSchedulerThread()) {
             invokeOnRegisteredNow(context);
         } else {
-            DefaultIoHandlerContext dctx = (DefaultIoHandlerContext) context;
-            Runnable event = dctx.registeredEvent;
-            if (event == null) {
-                dctx.registeredEvent = event = new Runnable() {
-                    @Override
-                    public void run() {
-                        invokeOnRegisteredNow(context);
-                    }
-                };
-            }
-            scheduler.schedule(event);
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    invokeOnRegisteredNow(context);
+                }
+            });
         }
     }
 
@@ -140,17 +169,12 @@ public class DefaultIoHandlerInvoker implements IoHandlerInvoker {
         if (scheduler.inSchedulerThread()) {
             invokeOnUnregisteredNow(context);
         } else {
-            DefaultIoHandlerContext dctx = (DefaultIoHandlerContext) context;
-            Runnable event = dctx.unregisteredEvent;
-            if (event == null) {
-                dctx.unregisteredEvent = event = new Runnable() {
-                    @Override
-                    public void run() {
-                        invokeOnUnregisteredNow(context);
-                    }
-                };
-            }
-            scheduler.schedule(event);
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    invokeOnUnregisteredNow(context);
+                }
+            });
         }
     }
 
@@ -159,94 +183,342 @@ public class DefaultIoHandlerInvoker implements IoHandlerInvoker {
         if (scheduler.inSchedulerThread()) {
             invokeOnOpenNow(context);
         } else {
-            DefaultIoHandlerContext dctx = (DefaultIoHandlerContext) context;
-            Runnable event = dctx.openEvent;
-            if (event == null) {
-                dctx.openEvent = event = new Runnable() {
-                    @Override
-                    public void run() {
-                        invokeOnOpenNow(context);
-                    }
-                };
-            }
-            scheduler.schedule(event);
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    invokeOnOpenNow(context);
+                }
+            });
         }
     }
 
     @SuppressWarnings("unchecked")
     @Override
-    public void invokeOnMessageReceived(final IoHandlerContext context, final Object message) {
+    public void invokeOnMessageReceived(IoHandlerContext context, Object message) {
         if (scheduler.inSchedulerThread()) {
             invokeOnMessageReceivedNow(context, message);
         } else {
-            scheduler.schedule(new Runnable() {
-                @Override
-                public void run() {
-                    invokeOnMessageReceivedNow(context, message);
-                }
-            });
+            scheduler.schedule(MessageReceivedEvent.newInstance(context, message));
+        }
+    }
+
+    @Override
+    public void invokeOnReadComplete(IoHandlerContext context) {
+        if (scheduler.inSchedulerThread()) {
+            invokeOnReadCompleteNow(context);
+        } else {
+            scheduler.schedule(ReadCompleteEvent.newInstance(context));
         }
     }
 
     @SuppressWarnings("unchecked")
     @Override
-    public void invokeOnMessageSent(final IoHandlerContext context, final Object message) {
+    public void invokeOnMessageSent(IoHandlerContext context, Object message, WriteCallback callback) {
         if (scheduler.inSchedulerThread()) {
-            invokeOnMessageSentNow(context, message);
+            invokeOnMessageSentNow(context, message, callback);
         } else {
-            scheduler.schedule(new Runnable() {
-                @Override
-                public void run() {
-                    invokeOnMessageSentNow(context, message);
-                }
-            });
+            scheduler.schedule(MessageSentEvent.newInstance(context, message, callback));
         }
     }
 
     @Override
-    public void invokeOnClosing(final IoHandlerContext context) {
+    public void invokeOnFlush(IoHandlerContext context) {
         if (scheduler.inSchedulerThread()) {
-            invokeOnClosingNow(context);
+            invokeOnFlushNow(context);
+        } else {
+            scheduler.schedule(FlushEvent.newInstance(context));
+        }
+    }
+
+    @Override
+    public void invokeOnWritabilityChanged(final IoHandlerContext context) {
+        if (scheduler.inSchedulerThread()) {
+            invokeOnWritabilityChangedNow(context);
         } else {
             scheduler.schedule(new Runnable() {
                 @Override
                 public void run() {
-                    invokeOnClosingNow(context);
+                    invokeOnWritabilityChangedNow(context);
                 }
             });
         }
     }
 
     @Override
-    public void invokeOnClosed(final IoHandlerContext context) {
+    public void invokeOnUserEvent(IoHandlerContext context, Object event) {
         if (scheduler.inSchedulerThread()) {
-            invokeOnCloseNow(context);
+            invokeOnUserEventNow(context, event);
         } else {
-            DefaultIoHandlerContext dctx = (DefaultIoHandlerContext) context;
-            Runnable event = dctx.closeEvent;
-            if (event == null) {
-                dctx.closeEvent = event = new Runnable() {
-                    @Override
-                    public void run() {
-                        invokeOnCloseNow(context);
-                    }
-                };
-            }
-            scheduler.schedule(event);
+            scheduler.schedule(UserEvent.newInstance(context, event));
         }
     }
 
     @Override
-    public void invokeOnExceptionCaught(final IoHandlerContext context, final Throwable e) {
+    public void invokeOnClosing(IoHandlerContext context) {
         if (scheduler.inSchedulerThread()) {
-            invokeOnExceptionCaughtNow(context, e);
+            invokeOnClosingNow(context);
+        } else {
+            scheduler.schedule(ClosingEvent.newInstance(context));
+        }
+    }
+
+    @Override
+    public void invokeOnClosed(final IoHandlerContext context) {
+        if (scheduler.inSchedulerThread()) {
+            invokeOnCloseNow(context);
         } else {
             scheduler.schedule(new Runnable() {
                 @Override
                 public void run() {
-                    invokeOnExceptionCaughtNow(context, e);
+                    invokeOnCloseNow(context);
                 }
             });
         }
     }
+
+    @Override
+    public void invokeOnExceptionCaught(IoHandlerContext context, Throwable e) {
+        if (scheduler.inSchedulerThread()) {
+            invokeOnExceptionCaughtNow(context, e);
+        } else {
+            scheduler.schedule(ExceptionCaughtEvent.newInstance(context, e));
+        }
+    }
+
+    private static final class MessageReceivedEvent implements Runnable {
+
+        private static final Recycler<MessageReceivedEvent> RECYCLER = new Recycler<MessageReceivedEvent>() {
+            @Override
+            protected MessageReceivedEvent newObject(Handle<MessageReceivedEvent> handle) {
+                return new MessageReceivedEvent(handle);
+            }
+        };
+
+        private final Recycler.Handle<MessageReceivedEvent> handle;
+        private IoHandlerContext context;
+        private Object message;
+
+        private MessageReceivedEvent(Recycler.Handle<MessageReceivedEvent> handle) {
+            this.handle = handle;
+        }
+
+        private static MessageReceivedEvent newInstance(IoHandlerContext context, Object message) {
+            MessageReceivedEvent event = RECYCLER.get();
+            event.context = context;
+            event.message = message;
+            return event;
+        }
+
+        @Override
+        public void run() {
+            IoHandlerContext context = this.context;
+            Object message = this.message;
+            this.context = null;
+            this.message = null;
+            handle.recycle();
+            invokeOnMessageReceivedNow(context, message);
+        }
+    }
+
+    private static final class ReadCompleteEvent implements Runnable {
+
+        private static final Recycler<ReadCompleteEvent> RECYCLER = new Recycler<ReadCompleteEvent>() {
+            @Override
+            protected ReadCompleteEvent newObject(Handle<ReadCompleteEvent> handle) {
+                return new ReadCompleteEvent(handle);
+            }
+        };
+
+        private final Recycler.Handle<ReadCompleteEvent> handle;
+        private IoHandlerContext context;
+
+        private ReadCompleteEvent(Recycler.Handle<ReadCompleteEvent> handle) {
+            this.handle = handle;
+        }
+
+        private static ReadCompleteEvent newInstance(IoHandlerContext context) {
+            ReadCompleteEvent event = RECYCLER.get();
+            event.context = context;
+            return event;
+        }
+
+        @Override
+        public void run() {
+            IoHandlerContext context = this.context;
+            this.context = null;
+            handle.recycle();
+            invokeOnReadCompleteNow(context);
+        }
+    }
+
+    private static final class MessageSentEvent implements Runnable {
+
+        private static final Recycler<MessageSentEvent> RECYCLER = new Recycler<MessageSentEvent>() {
+            @Override
+            protected MessageSentEvent newObject(Handle<MessageSentEvent> handle) {
+                return new MessageSentEvent(handle);
+            }
+        };
+
+        private final Recycler.Handle<MessageSentEvent> handle;
+        private IoHandlerContext context;
+        private Object message;
+        private WriteCallback callback;
+
+        private MessageSentEvent(Recycler.Handle<MessageSentEvent> handle) {
+            this.handle = handle;
+        }
+
+        private static MessageSentEvent newInstance(IoHandlerContext context, Object message, WriteCallback callback) {
+            MessageSentEvent event = RECYCLER.get();
+            event.context = context;
+            event.message = message;
+            event.callback = callback;
+            return event;
+        }
+
+        @Override
+        public void run() {
+            IoHandlerContext context = this.context;
+            Object message = this.message;
+            WriteCallback callback = this.callback;
+            this.context = null;
+            this.message = null;
+            this.callback = null;
+            handle.recycle();
+            invokeOnMessageSentNow(context, message, callback);
+        }
+    }
+
+    private static final class FlushEvent implements Runnable {
+
+        private static final Recycler<FlushEvent> RECYCLER = new Recycler<FlushEvent>() {
+            @Override
+            protected FlushEvent newObject(Handle<FlushEvent> handle) {
+                return new FlushEvent(handle);
+            }
+        };
+
+        private final Recycler.Handle<FlushEvent> handle;
+        private IoHandlerContext context;
+
+        private FlushEvent(Recycler.Handle<FlushEvent> handle) {
+            this.handle = handle;
+        }
+
+        private static FlushEvent newInstance(IoHandlerContext context) {
+            FlushEvent event = RECYCLER.get();
+            event.context = context;
+            return event;
+        }
+
+        @Override
+        public void run() {
+            IoHandlerContext context = this.context;
+            this.context = null;
+            handle.recycle();
+            invokeOnFlushNow(context);
+        }
+    }
+
+    private static final class UserEvent implements Runnable {
+
+        private static final Recycler<UserEvent> RECYCLER = new Recycler<UserEvent>() {
+            @Override
+            protected UserEvent newObject(Handle<UserEvent> handle) {
+                return new UserEvent(handle);
+            }
+        };
+
+        private final Recycler.Handle<UserEvent> handle;
+        private IoHandlerContext context;
+        private Object event;
+
+        private UserEvent(Recycler.Handle<UserEvent> handle) {
+            this.handle = handle;
+        }
+
+        private static UserEvent newInstance(IoHandlerContext context, Object event) {
+            UserEvent userEvent = RECYCLER.get();
+            userEvent.context = context;
+            userEvent.event = event;
+            return userEvent;
+        }
+
+        @Override
+        public void run() {
+            IoHandlerContext context = this.context;
+            Object event = this.event;
+            this.context = null;
+            this.event = null;
+            handle.recycle();
+            invokeOnUserEventNow(context, event);
+        }
+    }
+
+    private static final class ClosingEvent implements Runnable {
+
+        private static final Recycler<ClosingEvent> RECYCLER = new Recycler<ClosingEvent>() {
+            @Override
+            protected ClosingEvent newObject(Handle<ClosingEvent> handle) {
+                return new ClosingEvent(handle);
+            }
+        };
+
+        private final Recycler.Handle<ClosingEvent> handle;
+        private IoHandlerContext context;
+
+        private ClosingEvent(Recycler.Handle<ClosingEvent> handle) {
+            this.handle = handle;
+        }
+
+        private static ClosingEvent newInstance(IoHandlerContext context) {
+            ClosingEvent event = RECYCLER.get();
+            event.context = context;
+            return event;
+        }
+
+        @Override
+        public void run() {
+            IoHandlerContext context = this.context;
+            this.context = null;
+            handle.recycle();
+            invokeOnClosingNow(context);
+        }
+    }
+
+    private static final class ExceptionCaughtEvent implements Runnable {
+
+        private static final Recycler<ExceptionCaughtEvent> RECYCLER = new Recycler<ExceptionCaughtEvent>() {
+            @Override
+            protected ExceptionCaughtEvent newObject(Handle<ExceptionCaughtEvent> handle) {
+                return new ExceptionCaughtEvent(handle);
+            }
+        };
+
+        private final Recycler.Handle<ExceptionCaughtEvent> handle;
+        private IoHandlerContext context;
+        private Throwable cause;
+
+        private ExceptionCaughtEvent(Recycler.Handle<ExceptionCaughtEvent> handle) {
+            this.handle = handle;
+        }
+
+        private static ExceptionCaughtEvent newInstance(IoHandlerContext context, Throwable cause) {
+            ExceptionCaughtEvent event = RECYCLER.get();
+            event.context = context;
+            event.cause = cause;
+            return event;
+        }
+
+        @Override
+        public void run() {
+            IoHandlerContext context = this.context;
+            Throwable cause = this.cause;
+            this.context = null;
+            this.cause = null;
+            handle.recycle();
+            invokeOnExceptionCaughtNow(context, cause);
+        }
+    }
 }
@@ -2,13 +2,13 @@ package io.gwynt.core.pipeline;
 
 import io.gwynt.core.AbstractIoHandler;
 import io.gwynt.core.IoHandler;
+import io.gwynt.core.WriteCallback;
 import io.gwynt.core.transport.AbstractIoSession;
+import io.gwynt.core.util.ReferenceCountUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Iterator;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerContext> {
 
@@ -22,17 +22,42 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
     private final DefaultIoHandlerContext tail;
 
     private final AbstractIoSession ioSession;
-    private final Map<String, DefaultIoHandlerContext> name2context = new ConcurrentHashMap<>();
+    private final IoHandlerInvoker invoker;
 
     public DefaultPipeline(AbstractIoSession ioSession) {
         this.ioSession = ioSession;
-        head = new DefaultIoHandlerContext(ioSession, HEAD_HANDLER);
-        tail = new DefaultIoHandlerContext(ioSession, TAIL_HANDLER);
+        invoker = new DefaultIoHandlerInvoker(ioSession.getScheduler());
+        head = new DefaultIoHandlerContext(ioSession, HEAD_HANDLER, invoker);
+        tail = new DefaultIoHandlerContext(ioSession, TAIL_HANDLER, invoker);
         head.setNext(tail);
         tail.setPrev(head);
     }
 
-    private static String generateName(IoHandler ioHandler) {
+    /**
+     * Creates pipeline of handlers from template. All contexts of pipeline share single {@link IoHandlerInvoker}.
+     */
+    public DefaultPipeline(AbstractIoSession ioSession, PipelineTemplate template) {
+        this(ioSession);
+        synchronized (lock) {
+            DefaultIoHandlerContext prev = head;
+            for (int i = 0; i < template.size(); i++) {
+                DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, template.handler(i), invoker, template.mask(i));
+                context.setName(template.name(i));
+                context.setPrev(prev);
+                prev.setNext(context);
+                context.removed = false;
+                prev = context;
+            }
+            prev.setNext(tail);
+            tail.setPrev(prev);
+
+            for (DefaultIoHandlerContext context : this) {
+                context.fireOnAdded();
+            }
+        }
+    }
+
+    static String generateName(IoHandler ioHandler) {
         return ioHandler.getClass() + "@" + ioHandler.hashCode();
     }
 
@@ -52,6 +77,18 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         head.fireMessageReceived(message);
     }
 
+    public void fireReadComplete() {
+        head.fireReadComplete();
+    }
+
+    public void fireWritabilityChanged() {
+        head.fireWritabilityChanged();
+    }
+
+    public void fireUserEvent(Object event) {
+        head.fireUserEvent(event);
+    }
+
     public void fireClose() {
         head.fireClose();
     }
@@ -73,7 +110,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         if (name == null || ioHandler == null) {
             throw new IllegalArgumentException("all arguments are required");
         }
-        DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+        DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
         synchronized (lock) {
             DefaultIoHandlerContext next = head.getNext();
             next.setPrev(context);
@@ -82,7 +119,6 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
             head.setNext(context);
             context.setName(name);
             context.removed = false;
-            name2context.put(name, context);
             context.fireOnAdded();
         }
     }
@@ -100,7 +136,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         if (name == null || ioHandler == null) {
             throw new IllegalArgumentException("all arguments are required");
         }
-        DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+        DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
         synchronized (lock) {
             DefaultIoHandlerContext prev = tail.getPrev();
             prev.setNext(context);
@@ -109,7 +145,6 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
             tail.setPrev(context);
             context.setName(name);
             context.removed = false;
-            name2context.put(name, context);
             context.fireOnAdded();
         }
     }
@@ -121,7 +156,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         }
         synchronized (lock) {
             DefaultIoHandlerContext beforeContext = getContext(before);
-            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
             context.setName(generateName(ioHandler));
             if (beforeContext != null) {
                 addBefore(context, beforeContext);
@@ -136,7 +171,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         }
         synchronized (lock) {
             DefaultIoHandlerContext beforeContext = getContext(beforeName);
-            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
             context.setName(generateName(ioHandler));
             if (beforeContext != null) {
                 addBefore(context, beforeContext);
@@ -151,7 +186,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         }
         synchronized (lock) {
             DefaultIoHandlerContext beforeContext = getContext(before);
-            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
             context.setName(name);
             if (beforeContext != null) {
                 addBefore(context, beforeContext);
@@ -166,7 +201,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         }
         synchronized (lock) {
             DefaultIoHandlerContext beforeContext = getContext(beforeName);
-            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
             context.setName(name);
             if (beforeContext != null) {
                 addBefore(context, beforeContext);
@@ -181,7 +216,6 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         context.setPrev(prev);
         before.setPrev(context);
         context.removed = false;
-        name2context.put(context.getName(), context);
         context.fireOnAdded();
     }
 
@@ -192,7 +226,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         }
         synchronized (lock) {
             DefaultIoHandlerContext afterContext = getContext(after);
-            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
             context.setName(generateName(ioHandler));
             if (afterContext != null) {
                 addAfter(context, afterContext);
@@ -207,7 +241,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         }
         synchronized (lock) {
             DefaultIoHandlerContext afterContext = getContext(afterName);
-            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
             context.setName(generateName(ioHandler));
             if (afterContext != null) {
                 addAfter(context, afterContext);
@@ -222,7 +256,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         }
         synchronized (lock) {
             DefaultIoHandlerContext afterContext = getContext(after);
-            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
             context.setName(name);
             if (afterContext != null) {
                 addAfter(context, afterContext);
@@ -237,7 +271,7 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         }
         synchronized (lock) {
             DefaultIoHandlerContext afterContext = getContext(afterName);
-            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler);
+            DefaultIoHandlerContext context = new DefaultIoHandlerContext(ioSession, ioHandler, invoker);
             context.setName(name);
             if (afterContext != null) {
                 addAfter(context, afterContext);
@@ -252,7 +286,6 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         context.setPrev(after);
         after.setNext(context);
         context.removed = false;
-        name2context.put(context.getName(), context);
         context.fireOnAdded();
     }
 
@@ -283,16 +316,11 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
             prev.setNext(context.getNext());
             next.setPrev(context.getPrev());
             context.removed = true;
-            name2context.remove(context.getName());
             context.fireOnRemoved();
         }
     }
 
     private DefaultIoHandlerContext getContext(IoHandler ioHandler) {
-        DefaultIoHandlerContext contextByName;
-        if ((contextByName = getContext(generateName(ioHandler))) != null) {
-            return contextByName;
-        }
         for (DefaultIoHandlerContext context : this) {
             if (context.getIoHandler() == ioHandler) {
                 return context;
@@ -301,8 +329,16 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
         return null;
     }
 
+    /**
+     * Pipelines are short, so contexts are looked up by name without keeping map per session
+     */
     private DefaultIoHandlerContext getContext(String name) {
-        return name2context.get(name);
+        for (DefaultIoHandlerContext context : this) {
+            if (name.equals(context.getName())) {
+                return context;
+            }
+        }
+        return null;
     }
 
     @Override
@@ -324,7 +360,9 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
 
             @Override
             public void remove() {
-                DefaultPipeline.this.remove(context);
+                synchronized (lock) {
+                    DefaultPipeline.this.remove(context);
+                }
             }
         };
     }
@@ -332,8 +370,13 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
     private static class HeadHandler extends AbstractIoHandler {
 
         @Override
-        public void onMessageSent(IoHandlerContext context, Object message) {
-            context.getIoSession().write(message);
+        public void onMessageSent(IoHandlerContext context, Object message, WriteCallback callback) {
+            context.getIoSession().write(message, callback);
+        }
+
+        @Override
+        public void onFlush(IoHandlerContext context) {
+            context.getIoSession().flush();
         }
 
         @Override
@@ -358,10 +401,28 @@ public class DefaultPipeline implements Pipeline, Iterable<DefaultIoHandlerConte
 
         @Override
         public void onMessageReceived(IoHandlerContext context, Object message) {
+            ReferenceCountUtil.release(message);
+        }
+
+        @Override
+        public void onReadComplete(IoHandlerContext context) {
+        }
+
+        @Override
+        public void onMessageSent(IoHandlerContext context, Object message, WriteCallback callback) {
+        }
+
+        @Override
+        public void onFlush(IoHandlerContext context) {
+        }
+
+        @Override
+        public void onWritabilityChanged(IoHandlerContext context) {
         }
 
         @Override
-        public void onMessageSent(IoHandlerContext context, Object message) {
+        public void onUserEvent(IoHandlerContext context, Object event) {
+            ReferenceCountUtil.release(event);
         }
 
         @Override
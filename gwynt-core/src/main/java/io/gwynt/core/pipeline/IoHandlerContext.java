@@ -2,6 +2,10 @@ package io.gwynt.core.pipeline;
 
 import io.gwynt.core.IoHandler;
 import io.gwynt.core.IoSession;
+import io.gwynt.core.WriteCallback;
+import io.gwynt.core.scheduler.Timeout;
+
+import java.util.concurrent.TimeUnit;
 
 public interface IoHandlerContext {
 
@@ -19,8 +23,31 @@ public interface IoHandlerContext {
 
     IoHandlerContext fireMessageReceived(Object message);
 
+    IoHandlerContext fireReadComplete();
+
     IoHandlerContext fireMessageSent(Object message);
 
+    IoHandlerContext fireMessageSent(Object message, WriteCallback callback);
+
+    /**
+     * Requests all messages sent so far to be written to socket, messages sent without flush are only queued
+     */
+    IoHandlerContext fireFlush();
+
+    /**
+     * Shortcut for {@link #fireMessageSent(Object)} followed by {@link #fireFlush()}
+     */
+    IoHandlerContext fireMessageSentAndFlush(Object message);
+
+    /**
+     * Shortcut for {@link #fireMessageSent(Object, io.gwynt.core.WriteCallback)} followed by {@link #fireFlush()}
+     */
+    IoHandlerContext fireMessageSentAndFlush(Object message, WriteCallback callback);
+
+    IoHandlerContext fireWritabilityChanged();
+
+    IoHandlerContext fireUserEvent(Object event);
+
     IoHandlerContext fireClosing();
 
     IoHandlerContext fireClose();
@@ -28,4 +55,18 @@ public interface IoHandlerContext {
     IoHandlerContext fireExceptionCaught(Throwable e);
 
     boolean isRemoved();
+
+    /**
+     * Schedules task to be executed after delay in the thread which dispatches events of this session
+     *
+     * @return {@link Timeout} which cancels the task
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Schedules task to be executed repeatedly in the thread which dispatches events of this session
+     *
+     * @return {@link Timeout} which cancels the task
+     */
+    Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit);
 }
@@ -1,5 +1,7 @@
 package io.gwynt.core.pipeline;
 
+import io.gwynt.core.WriteCallback;
+
 public interface IoHandlerInvoker {
 
     void invokeOnHandlerAdded(IoHandlerContext context);
@@ -14,7 +16,15 @@ public interface IoHandlerInvoker {
 
     void invokeOnMessageReceived(IoHandlerContext context, Object message);
 
-    void invokeOnMessageSent(IoHandlerContext context, Object message);
+    void invokeOnReadComplete(IoHandlerContext context);
+
+    void invokeOnMessageSent(IoHandlerContext context, Object message, WriteCallback callback);
+
+    void invokeOnFlush(IoHandlerContext context);
+
+    void invokeOnWritabilityChanged(IoHandlerContext context);
+
+    void invokeOnUserEvent(IoHandlerContext context, Object event);
 
     void invokeOnClosing(IoHandlerContext context);
 
@@ -0,0 +1,75 @@
+package io.gwynt.core.pipeline;
+
+import io.gwynt.core.AbstractIoHandler;
+import io.gwynt.core.IoHandler;
+import io.gwynt.core.WriteCallback;
+
+/**
+ * Bit masks of events {@link io.gwynt.core.IoHandler} handles itself. <br/>
+ * Event methods inherited from {@link io.gwynt.core.AbstractIoHandler} just pass event along, so handlers which do not override them are skipped.
+ */
+final class IoHandlerMask {
+
+    static final int HANDLER_ADDED = 1;
+    static final int HANDLER_REMOVED = 1 << 1;
+    static final int REGISTERED = 1 << 2;
+    static final int UNREGISTERED = 1 << 3;
+    static final int OPEN = 1 << 4;
+    static final int MESSAGE_RECEIVED = 1 << 5;
+    static final int READ_COMPLETE = 1 << 6;
+    static final int MESSAGE_SENT = 1 << 7;
+    static final int FLUSH = 1 << 8;
+    static final int WRITABILITY_CHANGED = 1 << 9;
+    static final int USER_EVENT = 1 << 10;
+    static final int CLOSING = 1 << 11;
+    static final int CLOSE = 1 << 12;
+    static final int EXCEPTION_CAUGHT = 1 << 13;
+
+    static final int ALL = (1 << 14) - 1;
+
+    private static final ClassValue<Integer> MASKS = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return computeMask(type);
+        }
+    };
+
+    private IoHandlerMask() {
+    }
+
+    static int mask(Class<? extends IoHandler> handlerClass) {
+        return MASKS.get(handlerClass);
+    }
+
+    private static int computeMask(Class<?> handlerClass) {
+        if (!AbstractIoHandler.class.isAssignableFrom(handlerClass)) {
+            return ALL;
+        }
+
+        int mask = 0;
+        mask |= overridden(handlerClass, HANDLER_ADDED, "onHandlerAdded", IoHandlerContext.class);
+        mask |= overridden(handlerClass, HANDLER_REMOVED, "onHandlerRemoved", IoHandlerContext.class);
+        mask |= overridden(handlerClass, REGISTERED, "onRegistered", IoHandlerContext.class);
+        mask |= overridden(handlerClass, UNREGISTERED, "onUnregistered", IoHandlerContext.class);
+        mask |= overridden(handlerClass, OPEN, "onOpen", IoHandlerContext.class);
+        mask |= overridden(handlerClass, MESSAGE_RECEIVED, "onMessageReceived", IoHandlerContext.class, Object.class);
+        mask |= overridden(handlerClass, READ_COMPLETE, "onReadComplete", IoHandlerContext.class);
+        mask |= overridden(handlerClass, MESSAGE_SENT, "onMessageSent", IoHandlerContext.class, Object.class, WriteCallback.class);
+        mask |= overridden(handlerClass, FLUSH, "onFlush", IoHandlerContext.class);
+        mask |= overridden(handlerClass, WRITABILITY_CHANGED, "onWritabilityChanged", IoHandlerContext.class);
+        mask |= overridden(handlerClass, USER_EVENT, "onUserEvent", IoHandlerContext.class, Object.class);
+        mask |= overridden(handlerClass, CLOSING, "onClosing", IoHandlerContext.class);
+        mask |= overridden(handlerClass, CLOSE, "onClose", IoHandlerContext.class);
+        mask |= overridden(handlerClass, EXCEPTION_CAUGHT, "onExceptionCaught", IoHandlerContext.class, Throwable.class);
+        return mask;
+    }
+
+    private static int overridden(Class<?> handlerClass, int event, String methodName, Class<?>... parameterTypes) {
+        try {
+            // Generic overrides are reached through bridge methods declared by handler class itself
+            return handlerClass.getMethod(methodName, parameterTypes).getDeclaringClass() != AbstractIoHandler.class ? event : 0;
+        } catch (NoSuchMethodException | SecurityException e) {
+            return event;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.gwynt.core.pipeline;
+
+import io.gwynt.core.IoHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable chain of {@link io.gwynt.core.IoHandler}s shared by all sessions of {@link io.gwynt.core.Endpoint}. <br/>
+ * Handler names and event masks are computed once, so {@link DefaultPipeline} of new session only links its own contexts.
+ * Changes made to pipeline of session affect that session only.
+ */
+public final class PipelineTemplate {
+
+    private final IoHandler[] handlers;
+    private final String[] names;
+    private final int[] masks;
+
+    public PipelineTemplate(Iterable<IoHandler> ioHandlers) {
+        List<IoHandler> handlers = new ArrayList<>();
+        for (IoHandler ioHandler : ioHandlers) {
+            handlers.add(ioHandler);
+        }
+
+        this.handlers = handlers.toArray(new IoHandler[handlers.size()]);
+        names = new String[this.handlers.length];
+        masks = new int[this.handlers.length];
+        for (int i = 0; i < this.handlers.length; i++) {
+            names[i] = DefaultPipeline.generateName(this.handlers[i]);
+            masks[i] = IoHandlerMask.mask(this.handlers[i].getClass());
+        }
+    }
+
+    int size() {
+        return handlers.length;
+    }
+
+    IoHandler handler(int index) {
+        return handlers[index];
+    }
+
+    String name(int index) {
+        return names[index];
+    }
+
+    int mask(int index) {
+        return masks[index];
+    }
+}
@@ -1,11 +1,27 @@
 package io.gwynt.core.scheduler;
 
+import java.util.concurrent.TimeUnit;
+
 public interface EventScheduler {
 
     boolean inSchedulerThread();
 
     void schedule(Runnable task);
 
+    /**
+     * Schedules task to be executed by this scheduler once after delay
+     *
+     * @return {@link Timeout} which cancels the task
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Schedules task to be executed by this scheduler after initial delay and then repeatedly with given period until cancelled
+     *
+     * @return {@link Timeout} which cancels the task
+     */
+    Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit);
+
     void start();
 
     void stop();
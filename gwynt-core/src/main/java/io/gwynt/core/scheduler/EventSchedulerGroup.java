@@ -0,0 +1,22 @@
+package io.gwynt.core.scheduler;
+
+import io.gwynt.core.IoSession;
+
+/**
+ * {@link EventScheduler} which dispatches events of each {@link io.gwynt.core.IoSession} to scheduler assigned to that session.
+ * All events of one session are dispatched by the same scheduler, so their order is preserved.
+ * <p>
+ * Methods of the group itself serve tasks which do not belong to any session. Implementations execute them asynchronously
+ * in threads owned by the group, never in caller thread, and support delayed and periodic tasks.
+ * {@link #inSchedulerThread()} returns true only in threads owned by the group.
+ */
+public interface EventSchedulerGroup extends EventScheduler {
+
+    /**
+     * Returns scheduler which dispatches all events of given session
+     *
+     * @param session {@link io.gwynt.core.IoSession} being created
+     * @return {@link EventScheduler} assigned to session
+     */
+    EventScheduler forSession(IoSession session);
+}
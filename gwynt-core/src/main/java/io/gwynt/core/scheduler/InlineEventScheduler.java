@@ -0,0 +1,110 @@
+package io.gwynt.core.scheduler;
+
+import io.gwynt.core.IoSession;
+import io.gwynt.core.transport.AbstractIoSession;
+import io.gwynt.core.transport.Dispatcher;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dispatches events of each {@link io.gwynt.core.IoSession} directly in thread of {@link io.gwynt.core.transport.Dispatcher} the session is registered with.
+ * Handlers must not block, because blocking stalls all sessions of that dispatcher.
+ * Tasks which do not belong to any session are executed by private {@link SingleThreadedEventScheduler}.
+ */
+public class InlineEventScheduler implements EventSchedulerGroup {
+
+    private final SingleThreadedEventScheduler groupScheduler = new SingleThreadedEventScheduler();
+
+    public InlineEventScheduler() {
+        groupScheduler.setName("gwynt-scheduler-inline");
+    }
+
+    @Override
+    public EventScheduler forSession(IoSession session) {
+        if (!(session instanceof AbstractIoSession)) {
+            throw new IllegalArgumentException("Session is not instanceof " + AbstractIoSession.class.getCanonicalName());
+        }
+        return new DispatcherEventScheduler((AbstractIoSession) session);
+    }
+
+    @Override
+    public boolean inSchedulerThread() {
+        return groupScheduler.inSchedulerThread();
+    }
+
+    @Override
+    public void schedule(Runnable task) {
+        groupScheduler.schedule(task);
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return groupScheduler.schedule(task, delay, unit);
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return groupScheduler.scheduleAtFixedRate(task, initialDelay, period, unit);
+    }
+
+    @Override
+    public void start() {
+        groupScheduler.start();
+    }
+
+    @Override
+    public void stop() {
+        groupScheduler.stop();
+    }
+
+    private static final class DispatcherEventScheduler implements EventScheduler {
+
+        private final AbstractIoSession session;
+
+        private DispatcherEventScheduler(AbstractIoSession session) {
+            this.session = session;
+        }
+
+        @Override
+        public boolean inSchedulerThread() {
+            Dispatcher dispatcher = session.getDispatcher();
+            return dispatcher == null || dispatcher.inSchedulerThread();
+        }
+
+        @Override
+        public void schedule(Runnable task) {
+            Dispatcher dispatcher = session.getDispatcher();
+            if (dispatcher != null) {
+                dispatcher.schedule(task);
+            } else {
+                task.run();
+            }
+        }
+
+        @Override
+        public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+            return dispatcher().schedule(task, delay, unit);
+        }
+
+        @Override
+        public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return dispatcher().scheduleAtFixedRate(task, initialDelay, period, unit);
+        }
+
+        private Dispatcher dispatcher() {
+            Dispatcher dispatcher = session.getDispatcher();
+            if (dispatcher == null) {
+                throw new IllegalStateException("Session is not registered");
+            }
+            return dispatcher;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.gwynt.core.scheduler;
+
+import io.gwynt.core.IoSession;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Spreads events across several {@link SingleThreadedEventScheduler}s. <br/>
+ * Each {@link io.gwynt.core.IoSession} is pinned to one of them, so events of the session are dispatched in order and in the same thread.
+ */
+public class MultiThreadedEventScheduler implements EventSchedulerGroup {
+
+    private final SingleThreadedEventScheduler[] schedulers;
+    private final AtomicInteger nextScheduler = new AtomicInteger();
+
+    public MultiThreadedEventScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public MultiThreadedEventScheduler(int threadsCount) {
+        if (threadsCount < 1) {
+            throw new IllegalArgumentException("threadsCount");
+        }
+
+        schedulers = new SingleThreadedEventScheduler[threadsCount];
+        for (int i = 0; i < threadsCount; i++) {
+            SingleThreadedEventScheduler scheduler = new SingleThreadedEventScheduler();
+            scheduler.setName("gwynt-scheduler-" + (i + 1));
+            schedulers[i] = scheduler;
+        }
+    }
+
+    private EventScheduler next() {
+        return schedulers[(nextScheduler.getAndIncrement() & Integer.MAX_VALUE) % schedulers.length];
+    }
+
+    @Override
+    public EventScheduler forSession(IoSession session) {
+        return next();
+    }
+
+    @Override
+    public boolean inSchedulerThread() {
+        for (EventScheduler scheduler : schedulers) {
+            if (scheduler.inSchedulerThread()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void schedule(Runnable task) {
+        next().schedule(task);
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return next().schedule(task, delay, unit);
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return next().scheduleAtFixedRate(task, initialDelay, period, unit);
+    }
+
+    @Override
+    public void start() {
+        for (EventScheduler scheduler : schedulers) {
+            scheduler.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        for (EventScheduler scheduler : schedulers) {
+            scheduler.stop();
+        }
+    }
+}
@@ -1,59 +1,149 @@
 package io.gwynt.core.scheduler;
 
+import io.gwynt.core.util.MpscChunkedQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.Thread.State;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 public class SingleThreadedEventScheduler implements EventScheduler, Runnable {
 
     private static final Logger logger = LoggerFactory.getLogger(EventScheduler.class);
 
-    private Thread schedulerThread;
+    private static final int MAX_TASKS_PER_BATCH = 1024;
+
+    private volatile Thread schedulerThread;
+    private String name = "gwynt-scheduler";
 
     private AtomicBoolean running = new AtomicBoolean(false);
     private CountDownLatch shutdownLock = new CountDownLatch(1);
 
-    private BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>();
+    private MpscChunkedQueue<Runnable> taskQueue = new MpscChunkedQueue<>();
+    private volatile boolean sleeping;
+    private TimerWheel timerWheel = new TimerWheel(this);
+
+    private volatile int spinCount = 100;
+    private volatile int yieldCount = 10;
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getSpinCount() {
+        return spinCount;
+    }
+
+    /**
+     * Sets count of busy spins performed by idle scheduler thread before it starts yielding
+     */
+    public void setSpinCount(int spinCount) {
+        if (spinCount < 0) {
+            throw new IllegalArgumentException("spinCount");
+        }
+        this.spinCount = spinCount;
+    }
+
+    public int getYieldCount() {
+        return yieldCount;
+    }
+
+    /**
+     * Sets count of {@link Thread#yield()}s performed by idle scheduler thread after spinning and before it parks
+     */
+    public void setYieldCount(int yieldCount) {
+        if (yieldCount < 0) {
+            throw new IllegalArgumentException("yieldCount");
+        }
+        this.yieldCount = yieldCount;
+    }
 
     @Override
     public boolean inSchedulerThread() {
+        return schedulerThread == Thread.currentThread();
+    }
+
+    @Override
+    public void schedule(Runnable task) {
         if (!running.get()) {
             throw new IllegalStateException("Scheduler is not running");
         }
-        return schedulerThread == Thread.currentThread();
+        taskQueue.offer(task);
+        if (sleeping) {
+            LockSupport.unpark(schedulerThread);
+        }
     }
 
     @Override
-    public void schedule(Runnable task) {
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (!running.get()) {
+            throw new IllegalStateException("Scheduler is not running");
+        }
+        return timerWheel.newTimeout(task, delay, 0, unit);
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
         if (!running.get()) {
             throw new IllegalStateException("Scheduler is not running");
         }
-        taskQueue.add(task);
+        if (period <= 0) {
+            throw new IllegalArgumentException("period");
+        }
+        return timerWheel.newTimeout(task, initialDelay, period, unit);
     }
 
     @Override
     public void run() {
         shutdownLock.countDown();
+        int idleCount = 0;
         while (running.get()) {
-            Runnable task;
-            try {
-                task = taskQueue.take();
-            } catch (InterruptedException e) {
-                break;
+            int tasksCount = runTasks();
+            if (!timerWheel.isEmpty()) {
+                tasksCount += timerWheel.expireTimeouts(System.nanoTime());
             }
+            if (tasksCount > 0) {
+                idleCount = 0;
+                continue;
+            }
+
+            int spinCount = this.spinCount;
+            if (idleCount < spinCount) {
+                idleCount++;
+            } else if (idleCount < spinCount + yieldCount) {
+                idleCount++;
+                Thread.yield();
+            } else {
+                sleeping = true;
+                if (taskQueue.isEmpty() && running.get()) {
+                    long nanos = timerWheel.nanosToNextTick(System.nanoTime());
+                    if (nanos < 0) {
+                        LockSupport.park(this);
+                    } else if (nanos > 0) {
+                        LockSupport.parkNanos(this, nanos);
+                    }
+                }
+                sleeping = false;
+                idleCount = 0;
+            }
+        }
+        shutdownLock.countDown();
+    }
 
+    private int runTasks() {
+        int tasksCount = 0;
+        Runnable task;
+        while (tasksCount < MAX_TASKS_PER_BATCH && (task = taskQueue.poll()) != null) {
+            tasksCount++;
             try {
                 task.run();
             } catch (Throwable e) {
                 logger.error(e.getMessage(), e);
             }
         }
-        shutdownLock.countDown();
+        return tasksCount;
     }
 
     @Override
@@ -63,9 +153,9 @@ public class SingleThreadedEventScheduler implements EventScheduler, Runnable {
         }
         running.set(true);
         Thread thread = new Thread(this);
-        thread.setName("gwynt-scheduler");
-        thread.start();
+        thread.setName(name);
         schedulerThread = thread;
+        thread.start();
         try {
             shutdownLock.await();
         } catch (InterruptedException e) {
@@ -80,9 +170,7 @@ public class SingleThreadedEventScheduler implements EventScheduler, Runnable {
             return;
         }
         running.set(false);
-        if (schedulerThread.getState() == State.WAITING) {
-            schedulerThread.interrupt();
-        }
+        LockSupport.unpark(schedulerThread);
         try {
             shutdownLock.await();
         } catch (InterruptedException e) {
@@ -0,0 +1,21 @@
+package io.gwynt.core.scheduler;
+
+/**
+ * Handle of task scheduled with delay by {@link EventScheduler}
+ */
+public interface Timeout {
+
+    /**
+     * Cancels the task. Cancelled task will never be executed again.
+     *
+     * @return {@code true} if task was cancelled by this call, {@code false} if it was already cancelled or expired
+     */
+    boolean cancel();
+
+    boolean isCancelled();
+
+    /**
+     * @return {@code true} if one shot task was executed
+     */
+    boolean isExpired();
+}
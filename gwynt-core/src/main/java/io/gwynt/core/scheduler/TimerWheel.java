@@ -0,0 +1,293 @@
+package io.gwynt.core.scheduler;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hashed timing wheel which keeps delayed tasks of single {@link EventScheduler}. <br/>
+ * Timeouts are added and cancelled in constant time and are expired by scheduler thread with precision of one tick.
+ * Timeouts created in foreign threads are handed over to scheduler thread. Cancelled timeout drops its task at once
+ * and is pushed to lock-free stack, which scheduler thread purges on next tick before processing buckets,
+ * so tasks may safely cancel other timeouts of the bucket being processed.
+ */
+public final class TimerWheel {
+
+    public static final long DEFAULT_TICK_DURATION = TimeUnit.MILLISECONDS.toNanos(10);
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+    private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+
+    private final EventScheduler scheduler;
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime;
+    private final AtomicReference<WheelTimeout> cancelledTimeouts = new AtomicReference<>();
+
+    private long tick;
+    private int size;
+
+    public TimerWheel(EventScheduler scheduler) {
+        this(scheduler, DEFAULT_TICK_DURATION, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * @param scheduler     scheduler which thread runs {@link #expireTimeouts(long)}
+     * @param tickDuration  duration of tick in nanoseconds
+     * @param ticksPerWheel count of buckets, rounded up to power of two
+     */
+    public TimerWheel(EventScheduler scheduler, long tickDuration, int ticksPerWheel) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("scheduler");
+        }
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30) {
+            throw new IllegalArgumentException("ticksPerWheel");
+        }
+
+        this.scheduler = scheduler;
+        this.tickDuration = tickDuration;
+        int length = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        wheel = new Bucket[Math.max(length, 1)];
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = wheel.length - 1;
+        startTime = System.nanoTime();
+    }
+
+    /**
+     * Schedules task to be executed by scheduler thread after delay, and then repeatedly with given period if it is positive
+     */
+    public Timeout newTimeout(Runnable task, long delay, long period, TimeUnit unit) {
+        if (task == null) {
+            throw new IllegalArgumentException("task");
+        }
+        if (period < 0) {
+            throw new IllegalArgumentException("period");
+        }
+
+        final WheelTimeout timeout = new WheelTimeout(task, System.nanoTime() + unit.toNanos(Math.max(delay, 0)), unit.toNanos(period));
+        if (scheduler.inSchedulerThread()) {
+            add(timeout);
+        } else {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    add(timeout);
+                }
+            });
+        }
+        return timeout;
+    }
+
+    /**
+     * @return {@code true} if there is no timeout pending
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return nanoseconds left till next tick, or {@code -1} if there is no timeout pending
+     */
+    public long nanosToNextTick(long now) {
+        if (size == 0) {
+            return -1;
+        }
+        return Math.max(startTime + (tick + 1) * tickDuration - now, 0);
+    }
+
+    /**
+     * Executes all timeouts which deadlines passed. Must be called by scheduler thread.
+     *
+     * @return count of executed tasks
+     */
+    public int expireTimeouts(long now) {
+        purgeCancelledTimeouts();
+        int expired = 0;
+        long lastTick = (now - startTime) / tickDuration;
+        while (size > 0 && tick < lastTick) {
+            Bucket bucket = wheel[(int) (tick & mask)];
+            tick++;
+            expired += expireTimeouts(bucket);
+        }
+        if (size == 0) {
+            tick = Math.max(tick, lastTick);
+        }
+        return expired;
+    }
+
+    private int expireTimeouts(Bucket bucket) {
+        int expired = 0;
+        // Bucket is detached first, so tasks adding timeouts to it do not affect this pass
+        WheelTimeout timeout = bucket.clear();
+        while (timeout != null) {
+            WheelTimeout next = timeout.next;
+            timeout.next = null;
+            timeout.prev = null;
+            timeout.bucket = null;
+            if (timeout.state != WheelTimeout.ST_PENDING) {
+                size--;
+            } else if (timeout.remainingRounds <= 0) {
+                size--;
+                timeout.expire();
+                expired++;
+            } else {
+                timeout.remainingRounds--;
+                bucket.add(timeout);
+            }
+            timeout = next;
+        }
+        return expired;
+    }
+
+    private void purgeCancelledTimeouts() {
+        WheelTimeout timeout = cancelledTimeouts.getAndSet(null);
+        while (timeout != null) {
+            WheelTimeout next = timeout.nextCancelled;
+            timeout.nextCancelled = null;
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+                size--;
+            }
+            timeout = next;
+        }
+    }
+
+    private void add(WheelTimeout timeout) {
+        if (timeout.state != WheelTimeout.ST_PENDING) {
+            return;
+        }
+        if (size == 0) {
+            // Ticks are not processed while wheel is empty
+            tick = Math.max(tick, (System.nanoTime() - startTime) / tickDuration);
+        }
+
+        long calculated = (timeout.deadline - startTime) / tickDuration;
+        long ticks = Math.max(calculated, tick);
+        timeout.remainingRounds = (ticks - tick) / wheel.length;
+        wheel[(int) (ticks & mask)].add(timeout);
+        size++;
+    }
+
+    private static final class Bucket {
+
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        private void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        private void remove(WheelTimeout timeout) {
+            WheelTimeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * Detaches all timeouts, they stay linked to each other but not to bucket
+         */
+        private WheelTimeout clear() {
+            WheelTimeout first = head;
+            head = tail = null;
+            return first;
+        }
+    }
+
+    private final class WheelTimeout implements Timeout {
+
+        private static final int ST_PENDING = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+
+        private Runnable task;
+        private final long period;
+        private long deadline;
+        volatile int state;
+
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTimeout prev;
+        private WheelTimeout next;
+        private WheelTimeout nextCancelled;
+
+        private WheelTimeout(Runnable task, long deadline, long period) {
+            this.task = task;
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        private void expire() {
+            if (period == 0 && !STATE_UPDATER.compareAndSet(this, ST_PENDING, ST_EXPIRED)) {
+                return;
+            }
+            Runnable task = this.task;
+            if (task == null) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.error(e.getMessage(), e);
+            }
+            if (period > 0 && state == ST_PENDING) {
+                deadline += period;
+                add(this);
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_PENDING, ST_CANCELLED)) {
+                return false;
+            }
+            // Task may reference session, it must not be retained until the timeout is purged
+            task = null;
+            WheelTimeout head;
+            do {
+                head = cancelledTimeouts.get();
+                nextCancelled = head;
+            } while (!cancelledTimeouts.compareAndSet(head, this));
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+    }
+}
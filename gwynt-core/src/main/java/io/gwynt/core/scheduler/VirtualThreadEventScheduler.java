@@ -0,0 +1,229 @@
+package io.gwynt.core.scheduler;
+
+import io.gwynt.core.IoSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Dispatches events of each {@link io.gwynt.core.IoSession} in order, one session at a time, on a thread of its own. <br/>
+ * Events are executed on virtual threads when runtime supports them and on pooled platform threads otherwise.
+ * Handler blocking in I/O stalls only events of its session.
+ */
+public class VirtualThreadEventScheduler implements EventSchedulerGroup {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventScheduler.class);
+
+    private static final Method NEW_VIRTUAL_THREAD_EXECUTOR = findVirtualThreadExecutorFactory();
+
+    private final ThreadLocal<Boolean> inScheduler = new ThreadLocal<>();
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final SingleThreadedEventScheduler timer = new SingleThreadedEventScheduler();
+    private volatile ExecutorService executor;
+
+    public VirtualThreadEventScheduler() {
+        timer.setName("gwynt-scheduler-timer");
+    }
+
+    private static Method findVirtualThreadExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    public static boolean isVirtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    private static ExecutorService newExecutor() {
+        if (NEW_VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                logger.warn("Could not create virtual thread executor, falling back to platform threads", e);
+            }
+        }
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger threadsCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r);
+                thread.setName("gwynt-scheduler-" + threadsCount.incrementAndGet());
+                return thread;
+            }
+        });
+    }
+
+    @Override
+    public EventScheduler forSession(IoSession session) {
+        return new SerialEventScheduler();
+    }
+
+    @Override
+    public boolean inSchedulerThread() {
+        return inScheduler.get() != null;
+    }
+
+    @Override
+    public void schedule(final Runnable task) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                inScheduler.set(Boolean.TRUE);
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    logger.error(e.getMessage(), e);
+                } finally {
+                    inScheduler.remove();
+                }
+            }
+        });
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return timer.schedule(handOver(this, task), delay, unit);
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return timer.scheduleAtFixedRate(handOver(this, task), initialDelay, period, unit);
+    }
+
+    /**
+     * Delayed tasks are timed by single timer thread and executed by given scheduler when they expire
+     */
+    private static Runnable handOver(final EventScheduler scheduler, final Runnable task) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                scheduler.schedule(task);
+            }
+        };
+    }
+
+    private void execute(Runnable task) {
+        if (!running.get()) {
+            throw new IllegalStateException("Scheduler is not running");
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            throw new IllegalStateException("Scheduler is not running", e);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (running.get()) {
+            return;
+        }
+        executor = newExecutor();
+        timer.start();
+        running.set(true);
+    }
+
+    @Override
+    public void stop() {
+        if (!running.getAndSet(false)) {
+            return;
+        }
+        timer.stop();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            // ignore
+        }
+    }
+
+    /**
+     * Queues events of single session and drains them in one task at a time, so they are never executed concurrently or reordered
+     */
+    private final class SerialEventScheduler implements EventScheduler, Runnable {
+
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+        private volatile Thread thread;
+
+        @Override
+        public boolean inSchedulerThread() {
+            return thread == Thread.currentThread();
+        }
+
+        @Override
+        public void schedule(Runnable task) {
+            tasks.add(task);
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    execute(this);
+                } catch (IllegalStateException e) {
+                    scheduled.set(false);
+                    throw e;
+                }
+            }
+        }
+
+        @Override
+        public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+            return timer.schedule(handOver(this, task), delay, unit);
+        }
+
+        @Override
+        public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return timer.scheduleAtFixedRate(handOver(this, task), initialDelay, period, unit);
+        }
+
+        @Override
+        public void run() {
+            inScheduler.set(Boolean.TRUE);
+            try {
+                for (; ; ) {
+                    thread = Thread.currentThread();
+                    Runnable task;
+                    while ((task = tasks.poll()) != null || (task = pollAfterYield()) != null) {
+                        try {
+                            task.run();
+                        } catch (Throwable e) {
+                            logger.error(e.getMessage(), e);
+                        }
+                    }
+                    thread = null;
+                    scheduled.set(false);
+                    if (tasks.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                        break;
+                    }
+                }
+            } finally {
+                inScheduler.remove();
+            }
+        }
+
+        private Runnable pollAfterYield() {
+            Thread.yield();
+            return tasks.poll();
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
@@ -2,6 +2,9 @@ package io.gwynt.core.transport;
 
 import io.gwynt.core.exception.DispatcherStartupException;
 import io.gwynt.core.exception.RegistrationException;
+import io.gwynt.core.scheduler.Timeout;
+import io.gwynt.core.scheduler.TimerWheel;
+import io.gwynt.core.util.ByteBufferAllocator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,25 +13,39 @@ import java.nio.channels.ClosedSelectorException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
 import java.util.Iterator;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class AbstractDispatcher implements Dispatcher {
 
     protected static final Logger logger = LoggerFactory.getLogger(AbstractDispatcher.class);
     private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean wakenUp = new AtomicBoolean(false);
     private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final TimerWheel timerWheel = new TimerWheel(this);
+    protected final SelectorProvider selectorProvider;
     protected Selector selector;
     protected boolean daemon;
     private CountDownLatch lock = new CountDownLatch(1);
+    private volatile Thread thread;
+    private SelectedSelectionKeySet selectedKeys;
+    private boolean optimizeSelectedKeys = true;
     private String name;
 
     protected AbstractDispatcher() {
+        this(SelectorProvider.provider());
+    }
+
+    protected AbstractDispatcher(SelectorProvider selectorProvider) {
+        this.selectorProvider = selectorProvider;
         try {
-            this.selector = Selector.open();
+            this.selector = selectorProvider.openSelector();
         } catch (IOException e) {
             throw new DispatcherStartupException(e);
         }
@@ -38,6 +55,17 @@ public abstract class AbstractDispatcher implements Dispatcher {
         this.name = name;
     }
 
+    /**
+     * Enables replacement of selected keys set of JDK {@link java.nio.channels.Selector} by array backed one.
+     * Replacement requires reflective access to {@code sun.nio.ch}, e.g. {@code --add-opens java.base/sun.nio.ch=ALL-UNNAMED} on Java 9 and later.
+     * If it is not permitted default set is used. Enabled by default, takes effect on {@link #start()}.
+     *
+     * @param optimizeSelectedKeys whether selected keys set should be replaced
+     */
+    public void setOptimizeSelectedKeys(boolean optimizeSelectedKeys) {
+        this.optimizeSelectedKeys = optimizeSelectedKeys;
+    }
+
     @Override
     public void register(final SelectableChannel channel) {
         addTask(new Runnable() {
@@ -72,15 +100,46 @@ public abstract class AbstractDispatcher implements Dispatcher {
 
     @Override
     public void modifyRegistration(final SelectableChannel channel, final int interestOps) {
-        addTask(new Runnable() {
-            @Override
-            public void run() {
-                SelectionKey key = channel.keyFor(selector);
-                if (key != null && key.isValid()) {
-                    key.interestOps(key.interestOps() | interestOps);
+        if (inSchedulerThread()) {
+            modifyRegistrationNow(channel, interestOps);
+        } else {
+            addTask(new Runnable() {
+                @Override
+                public void run() {
+                    modifyRegistrationNow(channel, interestOps);
                 }
-            }
-        });
+            });
+        }
+    }
+
+    private void modifyRegistrationNow(SelectableChannel channel, int interestOps) {
+        SelectionKey key = channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(key.interestOps() | interestOps);
+        }
+    }
+
+    @Override
+    public boolean inSchedulerThread() {
+        return thread == Thread.currentThread();
+    }
+
+    @Override
+    public void schedule(Runnable task) {
+        addTask(task);
+    }
+
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return timerWheel.newTimeout(task, delay, 0, unit);
+    }
+
+    @Override
+    public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period");
+        }
+        return timerWheel.newTimeout(task, initialDelay, period, unit);
     }
 
     protected abstract int getChannelRegisterOps();
@@ -95,9 +154,15 @@ public abstract class AbstractDispatcher implements Dispatcher {
     protected void onChannelUnregistered(SelectionKey key) {
     }
 
+    /**
+     * Wakes up selector only for first task added after selector loop prepared to block in {@link java.nio.channels.Selector#select()}.
+     * Tasks added while loop is awake are picked up without wakeup.
+     */
     protected void addTask(Runnable task) {
         tasks.add(task);
-        selector.wakeup();
+        if (!inSchedulerThread() && wakenUp.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
     }
 
     private void performTasks() {
@@ -112,6 +177,33 @@ public abstract class AbstractDispatcher implements Dispatcher {
 
     protected abstract void processSelectedKey(SelectionKey key) throws IOException;
 
+    private void processSelectedKeys(Set<SelectionKey> selectedKeys) {
+        Iterator<SelectionKey> keys = selectedKeys.iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            processSelectedKeySafe(key);
+        }
+    }
+
+    private void processSelectedKeysOptimized() {
+        SelectedSelectionKeySet selectedKeys = this.selectedKeys;
+        for (int i = 0; i < selectedKeys.size(); i++) {
+            processSelectedKeySafe(selectedKeys.get(i));
+        }
+        selectedKeys.clear();
+    }
+
+    private void processSelectedKeySafe(SelectionKey key) {
+        if (key.isValid()) {
+            try {
+                processSelectedKey(key);
+            } catch (IOException e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
     @Override
     public void start() {
         if (running.get()) {
@@ -145,15 +237,36 @@ public abstract class AbstractDispatcher implements Dispatcher {
         }
     }
 
+    /**
+     * Blocks in selector until next tick of timer wheel if there are pending timeouts
+     */
+    private int select() throws IOException {
+        if (!tasks.isEmpty()) {
+            return selector.selectNow();
+        }
+        long nanos = timerWheel.nanosToNextTick(System.nanoTime());
+        if (nanos < 0) {
+            return selector.select();
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos + 999999);
+        return millis > 0 ? selector.select(millis) : selector.selectNow();
+    }
+
     private class SelectorLoopWorker extends Thread {
 
         @Override
         public void run() {
+            thread = this;
             try {
-                selector = Selector.open();
+                if (!selector.isOpen()) {
+                    selector = selectorProvider.openSelector();
+                }
             } catch (IOException e) {
                 throw new DispatcherStartupException(e);
             }
+            if (optimizeSelectedKeys) {
+                selectedKeys = SelectedSelectionKeySet.install(selector);
+            }
             lock.countDown();
 
             try (Selector sel = selector) {
@@ -162,7 +275,8 @@ public abstract class AbstractDispatcher implements Dispatcher {
 
                     int keyCount = 0;
                     try {
-                        keyCount = selector.select();
+                        wakenUp.set(false);
+                        keyCount = select();
                     } catch (ClosedSelectorException e) {
                         logger.error(e.getMessage(), e);
                         break;
@@ -170,19 +284,14 @@ public abstract class AbstractDispatcher implements Dispatcher {
                         logger.error(e.getMessage(), e);
                     }
 
-                    Iterator<SelectionKey> keys = keyCount > 0 ? sel.selectedKeys().iterator() : null;
-
-                    while (keys != null && keys.hasNext()) {
-                        SelectionKey key = keys.next();
-                        keys.remove();
+                    if (selectedKeys != null) {
+                        processSelectedKeysOptimized();
+                    } else if (keyCount > 0) {
+                        processSelectedKeys(sel.selectedKeys());
+                    }
 
-                        if (key.isValid()) {
-                            try {
-                                processSelectedKey(key);
-                            } catch (IOException e) {
-                                logger.error(e.getMessage(), e);
-                            }
-                        }
+                    if (!timerWheel.isEmpty()) {
+                        timerWheel.expireTimeouts(System.nanoTime());
                     }
                 }
 
@@ -192,6 +301,8 @@ public abstract class AbstractDispatcher implements Dispatcher {
                     selectionKey.channel().close();
                 }
                 performTasks();
+                ByteBufferAllocator.freeThreadCache();
+                thread = null;
                 lock.countDown();
             } catch (Throwable e) {
                 throw new RuntimeException("Unexpected exception", e);
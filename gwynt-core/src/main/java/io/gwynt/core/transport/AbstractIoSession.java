@@ -1,64 +1,540 @@
 package io.gwynt.core.transport;
 
+import io.gwynt.core.AttributeKey;
 import io.gwynt.core.Endpoint;
-import io.gwynt.core.IoHandler;
 import io.gwynt.core.IoSession;
 import io.gwynt.core.IoSessionStatus;
+import io.gwynt.core.WriteCallback;
+import io.gwynt.core.exception.ClosedSessionException;
 import io.gwynt.core.pipeline.DefaultPipeline;
+import io.gwynt.core.scheduler.EventScheduler;
+import io.gwynt.core.scheduler.EventSchedulerGroup;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.net.SocketAddress;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
+/**
+ * Base of transport sessions. <br/>
+ * Session state is kept in plain volatile fields updated by shared field updaters,
+ * and write queue is created on first write, so idle session costs as little memory as possible.
+ * Status, registration and write pending flag are packed into single int, so write path checks them with one read and updates them without locking.
+ * <p>
+ * Writes are only queued until {@link #flush()}. Writer threads hand data and flush marks over through lock-free write queue,
+ * dispatcher thread moves them to its own outbound buffer and writes entries which precede the last flush mark.
+ */
 public abstract class AbstractIoSession<T> implements SelectorEventListener, IoSession {
 
-    protected final Object registrationLock = new Object();
+    private static final Logger logger = LoggerFactory.getLogger(AbstractIoSession.class);
 
-    protected final AtomicBoolean registered = new AtomicBoolean(false);
-    protected final AtomicReference<Dispatcher> dispatcher = new AtomicReference<>();
+    private static final AttributeKey<Object> ATTACHMENT_KEY = AttributeKey.valueOf(AbstractIoSession.class.getName() + ".attachment");
+    private static final Object[] EMPTY_ATTRIBUTES = new Object[0];
 
-    protected final AtomicReference<IoSessionStatus> status = new AtomicReference<>(IoSessionStatus.CLOSED);
-    protected final AtomicReference<Object> attachment = new AtomicReference<>();
-    protected final Queue<Object> writeQueue = new ConcurrentLinkedQueue<>();
+    private static final IoSessionStatus[] STATUSES = IoSessionStatus.values();
+    private static final int STATUS_MASK = 3;
+    private static final int REGISTERED = 1 << 2;
+    private static final int WRITE_PENDING = 1 << 3;
+    private static final int UNFLUSHED = 1 << 4;
+    private static final int CLOSING = 1 << 5;
+
+    private static final Object FLUSH = new Object();
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<AbstractIoSession> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(AbstractIoSession.class, "state");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AbstractIoSession, Object[]> ATTRIBUTES_UPDATER = AtomicReferenceFieldUpdater.newUpdater(AbstractIoSession.class, Object[].class, "attributes");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<AbstractIoSession, Queue> WRITE_QUEUE_UPDATER = AtomicReferenceFieldUpdater.newUpdater(AbstractIoSession.class, Queue.class, "writeQueue");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicIntegerFieldUpdater<AbstractIoSession> WRITABLE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(AbstractIoSession.class, "writable");
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<AbstractIoSession> PENDING_WRITE_BYTES_UPDATER = AtomicLongFieldUpdater.newUpdater(AbstractIoSession.class, "pendingWriteBytes");
+
+    protected volatile Dispatcher dispatcher;
+
+    private volatile int state = IoSessionStatus.CLOSED.ordinal();
+    private volatile int writable = 1;
+    private volatile long pendingWriteBytes;
+    private volatile Object[] attributes = EMPTY_ATTRIBUTES;
+    private volatile Queue<Object> writeQueue;
+    private ArrayDeque<Object> outboundBuffer;
+    private int flushedCount;
+    private Runnable writeTask;
 
     protected Channel<T> channel;
     protected DefaultPipeline pipeline;
     protected Endpoint endpoint;
+    protected EventScheduler scheduler;
+
+    private boolean writing;
 
     protected AbstractIoSession(Channel<T> channel, Endpoint endpoint) {
         this.channel = channel;
         this.endpoint = endpoint;
 
-        pipeline = new DefaultPipeline(this);
-        for (IoHandler ioHandler : endpoint.getHandlers()) {
-            pipeline.addLast(ioHandler);
-        }
+        EventScheduler scheduler = endpoint.getScheduler();
+        this.scheduler = scheduler instanceof EventSchedulerGroup ? ((EventSchedulerGroup) scheduler).forSession(this) : scheduler;
+
+        pipeline = new DefaultPipeline(this, endpoint.getPipelineTemplate());
     }
 
     protected T javaChannel() {
         return channel.unwrap();
     }
 
+    @SuppressWarnings("unchecked")
+    private Queue<Object> writeQueue() {
+        Queue<Object> writeQueue = this.writeQueue;
+        if (writeQueue == null) {
+            WRITE_QUEUE_UPDATER.compareAndSet(this, null, new ConcurrentLinkedQueue<>());
+            writeQueue = this.writeQueue;
+        }
+        return writeQueue;
+    }
+
+    /**
+     * Queues entry without making it eligible for writing, may be called from any thread. <br/>
+     * Session could be closed after caller checked its status, and entries queued after dispatcher failed pending writes would stay in queue forever.
+     * So writer which finds session closed fails entries left in write queue itself,
+     * subclasses must set {@link io.gwynt.core.IoSessionStatus#CLOSED} before calling {@link #failPendingWrites()} for the last time.
+     */
+    protected final void enqueueWrite(Object entry) {
+        writeQueue().add(entry);
+        for (; ; ) {
+            int state = this.state;
+            if ((state & UNFLUSHED) != 0 || STATE_UPDATER.compareAndSet(this, state, state | UNFLUSHED)) {
+                break;
+            }
+        }
+        if (status(state) == IoSessionStatus.CLOSED) {
+            failQueuedWrites();
+        }
+    }
+
+    /**
+     * Moves entries queued by writers to outbound buffer. Always called in dispatcher thread.
+     * Closing session flushes everything queued before it was closed.
+     *
+     * @return count of entries at the head of outbound buffer which may be written
+     */
+    protected final int drainWriteQueue() {
+        Queue<Object> writeQueue = this.writeQueue;
+        if (writeQueue != null) {
+            Object entry;
+            while ((entry = writeQueue.poll()) != null) {
+                ArrayDeque<Object> outboundBuffer = outboundBuffer();
+                if (entry == FLUSH) {
+                    flushedCount = outboundBuffer.size();
+                } else {
+                    outboundBuffer.add(entry);
+                }
+            }
+        }
+        if (outboundBuffer != null && status(state) == IoSessionStatus.PENDING_CLOSE) {
+            flushedCount = outboundBuffer.size();
+        }
+        return flushedCount;
+    }
+
+    private ArrayDeque<Object> outboundBuffer() {
+        if (outboundBuffer == null) {
+            outboundBuffer = new ArrayDeque<>();
+        }
+        return outboundBuffer;
+    }
+
+    /**
+     * @return flushed entries in order they were written, only first {@link #drainWriteQueue()} entries of the buffer are flushed
+     */
+    protected final Iterable<Object> flushedWrites() {
+        return outboundBuffer();
+    }
+
+    protected final Object peekFlushedWrite() {
+        return flushedCount > 0 ? outboundBuffer.peek() : null;
+    }
+
+    protected final Object pollFlushedWrite() {
+        if (flushedCount == 0) {
+            return null;
+        }
+        flushedCount--;
+        return outboundBuffer.poll();
+    }
+
+    /**
+     * Checks queued writes of any thread without creating write queue
+     */
+    protected final boolean hasPendingWrites() {
+        Queue<Object> writeQueue = this.writeQueue;
+        return flushedCount > 0 || (writeQueue != null && !writeQueue.isEmpty());
+    }
+
+    /**
+     * Fails flushed and unflushed entries, so they are discarded when session is closed. Always called in dispatcher thread.
+     */
+    protected final void failPendingWrites() {
+        flushedCount = 0;
+        if (outboundBuffer != null) {
+            Throwable cause = null;
+            Object entry;
+            while ((entry = outboundBuffer.poll()) != null) {
+                if (cause == null) {
+                    cause = new ClosedSessionException();
+                }
+                failWrite(entry, cause);
+            }
+        }
+        failQueuedWrites();
+    }
+
+    /**
+     * Fails entries of write queue only, so writers may call it concurrently with dispatcher thread. Each entry is failed by thread which polled it.
+     */
+    private void failQueuedWrites() {
+        Queue<Object> writeQueue = this.writeQueue;
+        if (writeQueue == null) {
+            return;
+        }
+        Throwable cause = null;
+        Object entry;
+        while ((entry = writeQueue.poll()) != null) {
+            if (entry != FLUSH) {
+                if (cause == null) {
+                    cause = new ClosedSessionException();
+                }
+                failWrite(entry, cause);
+            }
+        }
+    }
+
+    /**
+     * Notifies callback of entry which will never be written and subtracts its unwritten bytes from pending write bytes.
+     * May be called from any thread.
+     */
+    protected abstract void failWrite(Object entry, Throwable cause);
+
+    @Override
+    public void flush() {
+        for (; ; ) {
+            int state = this.state;
+            if ((state & (UNFLUSHED | CLOSING)) != UNFLUSHED) {
+                return;
+            }
+            if (STATE_UPDATER.compareAndSet(this, state, state & ~UNFLUSHED)) {
+                break;
+            }
+        }
+        writeQueue().add(FLUSH);
+        requestWrite();
+    }
+
+    @Override
+    public void writeAndFlush(Object data) {
+        writeAndFlush(data, WriteCallback.VOID);
+    }
+
+    @Override
+    public void writeAndFlush(Object data, WriteCallback callback) {
+        write(data, callback);
+        flush();
+    }
+
+    private static IoSessionStatus status(int state) {
+        return STATUSES[state & STATUS_MASK];
+    }
+
+    protected final IoSessionStatus getAndSetStatus(IoSessionStatus status) {
+        for (; ; ) {
+            int state = this.state;
+            if (STATE_UPDATER.compareAndSet(this, state, (state & ~STATUS_MASK) | status.ordinal())) {
+                return status(state);
+            }
+        }
+    }
+
+    protected final void setStatus(IoSessionStatus status) {
+        getAndSetStatus(status);
+    }
+
+    /**
+     * @return true if session is opened and neither closing nor closed
+     */
+    protected final boolean isOpened() {
+        return status(state) == IoSessionStatus.OPENED;
+    }
+
+    /**
+     * Moves opened session to {@link io.gwynt.core.IoSessionStatus#PENDING_CLOSE}
+     *
+     * @return true if status was changed by this call
+     */
+    protected final boolean markPendingClose() {
+        for (; ; ) {
+            int state = this.state;
+            if (status(state) != IoSessionStatus.OPENED) {
+                return false;
+            }
+            if (STATE_UPDATER.compareAndSet(this, state, (state & ~STATUS_MASK) | IoSessionStatus.PENDING_CLOSE.ordinal())) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Marks connection as being closed, so pending writes are failed and channel is unregistered exactly once.
+     * Once marked, session neither flushes nor writes.
+     *
+     * @return true if session was marked by this call
+     */
+    protected final boolean markClosing() {
+        for (; ; ) {
+            int state = this.state;
+            if ((state & CLOSING) != 0) {
+                return false;
+            }
+            if (STATE_UPDATER.compareAndSet(this, state, (state & ~STATUS_MASK) | IoSessionStatus.PENDING_CLOSE.ordinal() | CLOSING)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Dispatcher must be assigned before session is marked registered and cleared after registration flag is reset,
+     * so writers which saw registration flag either get current dispatcher or null.
+     * Registration also resets write pending flag, which could be left by write task of previous registration.
+     */
+    protected final void setRegistered(boolean registered) {
+        for (; ; ) {
+            int state = this.state;
+            int newState = registered ? (state | REGISTERED) & ~WRITE_PENDING : state & ~REGISTERED;
+            if (STATE_UPDATER.compareAndSet(this, state, newState)) {
+                return;
+            }
+        }
+    }
+
+    protected final void setWritePending(boolean writePending) {
+        for (; ; ) {
+            int state = this.state;
+            int newState = writePending ? state | WRITE_PENDING : state & ~WRITE_PENDING;
+            if (state == newState || STATE_UPDATER.compareAndSet(this, state, newState)) {
+                return;
+            }
+        }
+    }
+
+    private boolean trySetWritePending() {
+        for (; ; ) {
+            int state = this.state;
+            if ((state & WRITE_PENDING) != 0) {
+                return false;
+            }
+            if (STATE_UPDATER.compareAndSet(this, state, state | WRITE_PENDING)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Writes flushed data immediately if called in dispatcher thread and no write is pending yet.
+     * Otherwise schedules single write task, which is shared by all writes made until it is processed.
+     */
+    protected void requestWrite() {
+        if ((state & (REGISTERED | CLOSING)) != REGISTERED) {
+            return;
+        }
+        Dispatcher dispatcher = this.dispatcher;
+        if (dispatcher == null) {
+            return;
+        }
+
+        if (dispatcher.inSchedulerThread()) {
+            if ((state & WRITE_PENDING) == 0) {
+                doWrite();
+            }
+        } else if (trySetWritePending()) {
+            Runnable writeTask = this.writeTask;
+            if (writeTask == null) {
+                this.writeTask = writeTask = new Runnable() {
+                    @Override
+                    public void run() {
+                        Dispatcher dispatcher = AbstractIoSession.this.dispatcher;
+                        if ((state & REGISTERED) != 0 && dispatcher != null && dispatcher.inSchedulerThread()) {
+                            doWrite();
+                        } else {
+                            // Session was unregistered or moved to other dispatcher since the task was scheduled
+                            setWritePending(false);
+                            requestWrite();
+                        }
+                    }
+                };
+            }
+            dispatcher.schedule(writeTask);
+        }
+    }
+
+    /**
+     * Calls {@link #processWriteQueue()} unless it is already running, e.g. when {@link io.gwynt.core.WriteCallback} writes more data.
+     */
+    protected final void doWrite() {
+        if (writing || (state & CLOSING) != 0) {
+            return;
+        }
+        writing = true;
+        try {
+            processWriteQueue();
+        } finally {
+            writing = false;
+        }
+    }
+
+    /**
+     * Writes as much flushed data as channel accepts. Always called in dispatcher thread.
+     * Implementations should reset {@link #setWritePending(boolean) write pending} flag before writing and set it again if {@code OP_WRITE} was requested.
+     */
+    protected abstract void processWriteQueue();
+
     @Override
     public boolean isRegistered() {
-        return registered.get();
+        return (state & REGISTERED) != 0;
+    }
+
+    @Override
+    public void write(Object data) {
+        write(data, WriteCallback.VOID);
+    }
+
+    protected void notifyWriteComplete(WriteCallback callback) {
+        if (callback != WriteCallback.VOID) {
+            try {
+                callback.onComplete(this);
+            } catch (Throwable e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    protected void notifyWriteError(WriteCallback callback, Throwable cause) {
+        if (callback != WriteCallback.VOID) {
+            try {
+                callback.onError(this, cause);
+            } catch (Throwable e) {
+                logger.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public boolean isWritable() {
+        return writable != 0;
+    }
+
+    protected void incrementPendingWriteBytes(long bytes) {
+        PENDING_WRITE_BYTES_UPDATER.addAndGet(this, bytes);
+        updateWritability();
+    }
+
+    protected void decrementPendingWriteBytes(long bytes) {
+        PENDING_WRITE_BYTES_UPDATER.addAndGet(this, -bytes);
+        updateWritability();
+    }
+
+    private void updateWritability() {
+        for (; ; ) {
+            int writable = this.writable;
+            long pendingWriteBytes = this.pendingWriteBytes;
+            boolean nowWritable = writable != 0 ? pendingWriteBytes <= endpoint.getWriteBufferHighWaterMark() : pendingWriteBytes < endpoint.getWriteBufferLowWaterMark();
+            if ((writable != 0) == nowWritable) {
+                return;
+            }
+            if (WRITABLE_UPDATER.compareAndSet(this, writable, nowWritable ? 1 : 0)) {
+                fireWritabilityChanged();
+            }
+        }
+    }
+
+    protected void fireWritabilityChanged() {
+        pipeline.fireWritabilityChanged();
     }
 
     @Override
     public IoSessionStatus getStatus() {
-        return status.get();
+        return status(state);
     }
 
     @Override
     public Object attach(Object attachment) {
-        return this.attachment.getAndSet(attachment);
+        return setAttribute(ATTACHMENT_KEY, attachment);
     }
 
     @Override
     public Object attachment() {
-        return attachment.get();
+        return getAttribute(ATTACHMENT_KEY);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <A> A getAttribute(AttributeKey<A> key) {
+        Object[] attributes = this.attributes;
+        int id = key.id();
+        return id < attributes.length ? (A) attributes[id] : null;
+    }
+
+    @Override
+    public <A> A setAttribute(AttributeKey<A> key, A value) {
+        return updateAttribute(key, value, false);
+    }
+
+    @Override
+    public <A> A setAttributeIfAbsent(AttributeKey<A> key, A value) {
+        return updateAttribute(key, value, true);
+    }
+
+    /**
+     * Attributes are rarely changed, so array is copied on each change and readers never see partially updated array.
+     * Array is only as long as highest id of key set in this session.
+     */
+    @SuppressWarnings("unchecked")
+    private <A> A updateAttribute(AttributeKey<A> key, A value, boolean ifAbsent) {
+        int id = key.id();
+        for (; ; ) {
+            Object[] attributes = this.attributes;
+            A oldValue = id < attributes.length ? (A) attributes[id] : null;
+            if (oldValue == value || (ifAbsent && oldValue != null)) {
+                return oldValue;
+            }
+            Object[] newAttributes = Arrays.copyOf(attributes, Math.max(attributes.length, id + 1));
+            newAttributes[id] = value;
+            if (ATTRIBUTES_UPDATER.compareAndSet(this, attributes, newAttributes)) {
+                return oldValue;
+            }
+        }
+    }
+
+    /**
+     * Returns {@link io.gwynt.core.scheduler.EventScheduler} which dispatches all events of this session
+     *
+     * @return scheduler assigned to session
+     */
+    public EventScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Returns {@link Dispatcher} this session is registered with
+     *
+     * @return current dispatcher or null if session is not registered
+     */
+    public Dispatcher getDispatcher() {
+        return dispatcher;
     }
 
     @Override
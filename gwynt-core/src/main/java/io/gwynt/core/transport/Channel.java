@@ -12,6 +12,8 @@ public interface Channel<T> {
 
     int write(ByteBuffer src) throws IOException;
 
+    long write(ByteBuffer[] srcs, int offset, int length) throws IOException;
+
     void close() throws IOException;
 
     SocketAddress getLocalAddress();
@@ -1,16 +1,14 @@
 package io.gwynt.core.transport;
 
+import io.gwynt.core.scheduler.EventScheduler;
+
 import java.nio.channels.SelectableChannel;
 
-public interface Dispatcher {
+public interface Dispatcher extends EventScheduler {
 
     void register(SelectableChannel channel);
 
     void unregister(SelectableChannel channel);
 
     void modifyRegistration(SelectableChannel channel, int interestOps);
-
-    void start();
-
-    void stop();
 }
@@ -6,12 +6,18 @@ import io.gwynt.core.transport.tcp.NioTcpSession;
 import java.io.IOException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.spi.SelectorProvider;
 
 public class NioDispatcher extends AbstractDispatcher {
 
     protected IoSessionFactory<SelectableChannel, NioTcpSession> ioSessionFactory;
 
     public NioDispatcher(IoSessionFactory<SelectableChannel, NioTcpSession> ioSessionFactory) {
+        this(ioSessionFactory, SelectorProvider.provider());
+    }
+
+    public NioDispatcher(IoSessionFactory<SelectableChannel, NioTcpSession> ioSessionFactory, SelectorProvider selectorProvider) {
+        super(selectorProvider);
         this.ioSessionFactory = ioSessionFactory;
         daemon = true;
     }
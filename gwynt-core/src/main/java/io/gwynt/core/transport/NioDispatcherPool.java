@@ -4,6 +4,7 @@ import io.gwynt.core.IoSessionFactory;
 import io.gwynt.core.transport.tcp.NioTcpSession;
 
 import java.nio.channels.SelectableChannel;
+import java.nio.channels.spi.SelectorProvider;
 
 public class NioDispatcherPool implements DispatcherPool {
 
@@ -12,15 +13,21 @@ public class NioDispatcherPool implements DispatcherPool {
     private int currentDispatcher = 0;
 
     private IoSessionFactory<SelectableChannel, NioTcpSession> ioSessionFactory;
+    private SelectorProvider selectorProvider;
 
     public NioDispatcherPool(IoSessionFactory<SelectableChannel, NioTcpSession> ioSessionFactory) {
+        this(ioSessionFactory, SelectorProvider.provider());
+    }
+
+    public NioDispatcherPool(IoSessionFactory<SelectableChannel, NioTcpSession> ioSessionFactory, SelectorProvider selectorProvider) {
         this.ioSessionFactory = ioSessionFactory;
+        this.selectorProvider = selectorProvider;
         createDispatchers();
     }
 
     private void createDispatchers() {
         for (int i = 0; i < dispatchersCount; i++) {
-            NioDispatcher dispatcher = new NioDispatcher(ioSessionFactory);
+            NioDispatcher dispatcher = new NioDispatcher(ioSessionFactory, selectorProvider);
             dispatcher.setName("gwynt-tcp-dispatcher-" + (i + 1));
             dispatchers[i] = dispatcher;
         }
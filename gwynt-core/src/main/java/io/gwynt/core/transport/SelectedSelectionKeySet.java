@@ -0,0 +1,118 @@
+package io.gwynt.core.transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Field;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Array backed replacement of selected keys set of JDK {@link java.nio.channels.Selector}.
+ * Selector only adds keys to it, so neither hashing nor iterator is needed to process selected keys.
+ */
+final class SelectedSelectionKeySet extends AbstractSet<SelectionKey> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SelectedSelectionKeySet.class);
+
+    private SelectionKey[] keys = new SelectionKey[1024];
+    private int size;
+
+    private SelectedSelectionKeySet() {
+    }
+
+    /**
+     * Replaces selected keys set of given {@link java.nio.channels.Selector}
+     *
+     * @param selector selector created by default JDK provider
+     * @return installed set or null if runtime does not allow replacement
+     */
+    static SelectedSelectionKeySet install(Selector selector) {
+        try {
+            Class<?> selectorImplClass = Class.forName("sun.nio.ch.SelectorImpl", false, ClassLoader.getSystemClassLoader());
+            if (!selectorImplClass.isAssignableFrom(selector.getClass())) {
+                return null;
+            }
+
+            Field selectedKeysField = selectorImplClass.getDeclaredField("selectedKeys");
+            Field publicSelectedKeysField = selectorImplClass.getDeclaredField("publicSelectedKeys");
+            selectedKeysField.setAccessible(true);
+            publicSelectedKeysField.setAccessible(true);
+
+            SelectedSelectionKeySet selectedKeys = new SelectedSelectionKeySet();
+            selectedKeysField.set(selector, selectedKeys);
+            publicSelectedKeysField.set(selector, selectedKeys);
+            return selectedKeys;
+        } catch (Throwable e) {
+            logger.debug("Failed to optimize selected keys set of {}, falling back to default one", selector, e);
+            return null;
+        }
+    }
+
+    @Override
+    public boolean add(SelectionKey key) {
+        if (key == null) {
+            return false;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+        }
+        keys[size++] = key;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return false;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return false;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        size = 0;
+    }
+
+    SelectionKey get(int index) {
+        return keys[index];
+    }
+
+    @Override
+    public Iterator<SelectionKey> iterator() {
+        return new Iterator<SelectionKey>() {
+
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public SelectionKey next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return keys[index++];
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
@@ -8,12 +8,18 @@ import java.net.SocketTimeoutException;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
 
 public class NioAcceptor extends AbstractDispatcher {
 
     private DispatcherPool dispatcherPool;
 
     public NioAcceptor(DispatcherPool dispatcherPool) {
+        this(dispatcherPool, SelectorProvider.provider());
+    }
+
+    public NioAcceptor(DispatcherPool dispatcherPool, SelectorProvider selectorProvider) {
+        super(selectorProvider);
         this.dispatcherPool = dispatcherPool;
     }
 
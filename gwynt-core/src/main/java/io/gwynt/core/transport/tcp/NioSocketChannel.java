@@ -48,6 +48,17 @@ public class NioSocketChannel extends AbstractSelectableChannel<SocketChannel> {
         return totalBytesWritten;
     }
 
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        long bytesWritten = channel.write(srcs, offset, length);
+
+        if (bytesWritten == -1) {
+            throw new EofException();
+        }
+
+        return bytesWritten;
+    }
+
     @Override
     public void close() throws IOException {
         channel.close();
@@ -2,133 +2,209 @@ package io.gwynt.core.transport.tcp;
 
 import io.gwynt.core.Endpoint;
 import io.gwynt.core.IoSessionStatus;
+import io.gwynt.core.WriteCallback;
+import io.gwynt.core.exception.ClosedSessionException;
 import io.gwynt.core.exception.EofException;
 import io.gwynt.core.transport.AbstractIoSession;
-import io.gwynt.core.util.ByteBufferAllocator;
 import io.gwynt.core.transport.Channel;
 import io.gwynt.core.transport.Dispatcher;
+import io.gwynt.core.util.ByteBufferAllocator;
+import io.gwynt.core.util.PooledByteBuffer;
+import io.gwynt.core.util.RecvBufferSizePredictor;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.util.Arrays;
 
 public class NioTcpSession extends AbstractIoSession<SocketChannel> {
 
+    private static final int MAX_GATHER_BUFFERS = 1024;
+    private static final long MAX_GATHER_BYTES = 512 * 1024;
+    private static final int MAX_WRITE_SPIN_COUNT = 16;
+    private static final int MAX_READS_PER_EVENT = 16;
+
+    private static final ThreadLocal<ByteBuffer[]> GATHER_BUFFERS = new ThreadLocal<ByteBuffer[]>() {
+        @Override
+        protected ByteBuffer[] initialValue() {
+            return new ByteBuffer[MAX_GATHER_BUFFERS];
+        }
+    };
+
+    private final RecvBufferSizePredictor recvBufferSizePredictor = new RecvBufferSizePredictor();
+
     public NioTcpSession(Channel<SocketChannel> channel, Endpoint endpoint) {
         super(channel, endpoint);
     }
 
+    private static ByteBuffer buffer(Object entry) {
+        return entry instanceof PendingWrite ? ((PendingWrite) entry).getBuffer() : (ByteBuffer) entry;
+    }
+
     @Override
-    public void write(Object data) {
+    public void write(Object data, WriteCallback callback) {
         if (!(data instanceof byte[])) {
             throw new IllegalArgumentException("Data is not instanceof byte[]");
         }
-        if (status.get() != IoSessionStatus.PENDING_CLOSE && status.get() != IoSessionStatus.CLOSED) {
-            writeQueue.add(ByteBuffer.wrap((byte[]) data));
-            synchronized (registrationLock) {
-                if (registered.get()) {
-                    dispatcher.get().modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
-                }
-            }
+        if (callback == null) {
+            throw new IllegalArgumentException("callback");
+        }
+        if (isOpened()) {
+            ByteBuffer buffer = ByteBuffer.wrap((byte[]) data);
+            incrementPendingWriteBytes(buffer.remaining());
+            enqueueWrite(callback == WriteCallback.VOID ? buffer : new PendingWrite(buffer, callback));
+        } else {
+            notifyWriteError(callback, new ClosedSessionException());
         }
     }
 
     @Override
     public void close() {
-        if (status.get() != IoSessionStatus.PENDING_CLOSE && status.get() != IoSessionStatus.CLOSED) {
-            status.set(IoSessionStatus.PENDING_CLOSE);
-            synchronized (registrationLock) {
-                if (registered.get()) {
-                    dispatcher.get().modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
-                }
-            }
+        if (markPendingClose()) {
+            requestWrite();
         }
     }
 
     @Override
     public void onSessionRegistered(Dispatcher dispatcher) {
-        synchronized (registrationLock) {
-            registered.set(true);
-            this.dispatcher.set(dispatcher);
-            pipeline.fireRegistered();
-        }
-        if (status.get() != IoSessionStatus.PENDING_CLOSE) {
-            boolean wasActive = status.getAndSet(IoSessionStatus.OPENED) == IoSessionStatus.OPENED;
+        this.dispatcher = dispatcher;
+        setRegistered(true);
+        pipeline.fireRegistered();
+        if (getStatus() != IoSessionStatus.PENDING_CLOSE) {
+            boolean wasActive = getAndSetStatus(IoSessionStatus.OPENED) == IoSessionStatus.OPENED;
             if (!wasActive) {
                 pipeline.fireOpen();
             }
-            if (!writeQueue.isEmpty()) {
-                this.dispatcher.get().modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
+            if (hasPendingWrites()) {
+                requestWrite();
             }
         }
     }
 
     @Override
     public void onSessionUnregistered(Dispatcher dispatcher) {
-        synchronized (registrationLock) {
-            registered.set(false);
-            this.dispatcher.set(null);
-            pipeline.fireUnregistered();
-        }
-        if (status.get() == IoSessionStatus.PENDING_CLOSE) {
+        setRegistered(false);
+        this.dispatcher = null;
+        pipeline.fireUnregistered();
+        if (getStatus() == IoSessionStatus.PENDING_CLOSE) {
             try {
                 channel.close();
             } catch (IOException e) {
                 // ignore
             }
-            boolean wasClosed = status.getAndSet(IoSessionStatus.CLOSED) == IoSessionStatus.CLOSED;
+            boolean wasClosed = getAndSetStatus(IoSessionStatus.CLOSED) == IoSessionStatus.CLOSED;
+            failPendingWrites();
             if (!wasClosed) {
                 pipeline.fireClose();
             }
         }
     }
 
+    /**
+     * Reads until socket is drained or {@link #MAX_READS_PER_EVENT} buffers were filled,
+     * then fires single read complete event for the whole burst.
+     */
     @Override
     public void onSelectedForRead(SelectionKey key) throws IOException {
-        int totalBytesRead;
         boolean eof = false;
-        ByteBuffer readBuffer = ByteBufferAllocator.allocate(150000);
-        try {
-            totalBytesRead = channel.read(readBuffer);
-        } catch (EofException e) {
-            eof = true;
-            totalBytesRead = readBuffer.position();
+        boolean received = false;
+
+        for (int i = 0; i < MAX_READS_PER_EVENT && !eof; i++) {
+            int totalBytesRead;
+            ByteBuffer readBuffer = ByteBufferAllocator.allocate(recvBufferSizePredictor.nextReadSize());
+            try {
+                totalBytesRead = channel.read(readBuffer);
+            } catch (EofException e) {
+                eof = true;
+                totalBytesRead = readBuffer.position();
+            }
+            recvBufferSizePredictor.record(totalBytesRead);
+            boolean filled = !readBuffer.hasRemaining();
+            readBuffer.flip();
+
+            if (totalBytesRead > 0) {
+                received = true;
+                pipeline.fireMessageReceived(PooledByteBuffer.wrap(readBuffer));
+            } else {
+                ByteBufferAllocator.release(readBuffer);
+            }
+
+            // Handlers could have closed the session
+            if (!filled || !isOpened()) {
+                break;
+            }
         }
-        readBuffer.flip();
 
-        if (totalBytesRead > 0) {
-            byte[] message = new byte[readBuffer.limit()];
-            readBuffer.get(message);
-            pipeline.fireMessageReceived(message);
+        if (received) {
+            pipeline.fireReadComplete();
         }
 
         if (eof) {
             closeConnection();
         }
-        ByteBufferAllocator.release(readBuffer);
     }
 
     @Override
     public void onSelectedForWrite(SelectionKey key) throws IOException {
-        ByteBuffer data = (ByteBuffer) writeQueue.peek();
+        doWrite();
+    }
+
+    @Override
+    protected void processWriteQueue() {
+        setWritePending(false);
+
+        ByteBuffer[] buffers = GATHER_BUFFERS.get();
+        boolean flushed = true;
+
+        for (int i = 0; i < MAX_WRITE_SPIN_COUNT && flushed; i++) {
+            int max = Math.min(drainWriteQueue(), buffers.length);
+            if (max == 0) {
+                break;
+            }
+            int count = 0;
+            long bytes = 0;
+            for (Object entry : flushedWrites()) {
+                ByteBuffer buffer = buffer(entry);
+                buffers[count++] = buffer;
+                bytes += buffer.remaining();
+                if (count == max || bytes >= MAX_GATHER_BYTES) {
+                    break;
+                }
+            }
 
-        if (data != null) {
             try {
-                channel.write(data);
+                long bytesWritten = channel.write(buffers, 0, count);
+                if (bytesWritten > 0) {
+                    decrementPendingWriteBytes(bytesWritten);
+                }
             } catch (EofException e) {
+                Arrays.fill(buffers, 0, count, null);
                 closeConnection();
                 return;
+            } catch (IOException e) {
+                Arrays.fill(buffers, 0, count, null);
+                onExceptionCaught(e);
+                return;
             }
 
-            if (!data.hasRemaining()) {
-                writeQueue.poll();
+            for (int j = 0; j < count; j++) {
+                if (buffers[j].hasRemaining()) {
+                    flushed = false;
+                    break;
+                }
+                Object entry = pollFlushedWrite();
+                if (entry instanceof PendingWrite) {
+                    notifyWriteComplete(((PendingWrite) entry).getCallback());
+                }
             }
+            Arrays.fill(buffers, 0, count, null);
         }
 
-        if (!writeQueue.isEmpty()) {
-            dispatcher.get().modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
-        } else if (status.get() == IoSessionStatus.PENDING_CLOSE) {
+        if (drainWriteQueue() > 0) {
+            setWritePending(true);
+            dispatcher.modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
+        } else if (getStatus() == IoSessionStatus.PENDING_CLOSE) {
             closeConnection();
         }
     }
@@ -139,11 +215,19 @@ public class NioTcpSession extends AbstractIoSession<SocketChannel> {
         closeConnection();
     }
 
+    @Override
+    protected void failWrite(Object entry, Throwable cause) {
+        decrementPendingWriteBytes(buffer(entry).remaining());
+        if (entry instanceof PendingWrite) {
+            notifyWriteError(((PendingWrite) entry).getCallback(), cause);
+        }
+    }
+
     private void closeConnection() {
-        status.set(IoSessionStatus.PENDING_CLOSE);
-        if (!writeQueue.isEmpty()) {
-            writeQueue.clear();
+        if (!markClosing()) {
+            return;
         }
-        dispatcher.get().unregister(javaChannel());
+        failPendingWrites();
+        dispatcher.unregister(javaChannel());
     }
 }
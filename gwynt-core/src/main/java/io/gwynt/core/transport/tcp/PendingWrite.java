@@ -0,0 +1,24 @@
+package io.gwynt.core.transport.tcp;
+
+import io.gwynt.core.WriteCallback;
+
+import java.nio.ByteBuffer;
+
+final class PendingWrite {
+
+    private ByteBuffer buffer;
+    private WriteCallback callback;
+
+    public PendingWrite(ByteBuffer buffer, WriteCallback callback) {
+        this.buffer = buffer;
+        this.callback = callback;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    public WriteCallback getCallback() {
+        return callback;
+    }
+}
@@ -1,5 +1,7 @@
 package io.gwynt.core.transport.udp;
 
+import io.gwynt.core.WriteCallback;
+
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 
@@ -7,10 +9,16 @@ final class Datagram {
 
     private SocketAddress recipient;
     private ByteBuffer message;
+    private WriteCallback callback;
 
     public Datagram(SocketAddress recipient, ByteBuffer message) {
+        this(recipient, message, WriteCallback.VOID);
+    }
+
+    public Datagram(SocketAddress recipient, ByteBuffer message, WriteCallback callback) {
         this.recipient = recipient;
         this.message = message;
+        this.callback = callback;
     }
 
     public SocketAddress getRecipient() {
@@ -20,4 +28,8 @@ final class Datagram {
     public ByteBuffer getMessage() {
         return message;
     }
+
+    public WriteCallback getCallback() {
+        return callback;
+    }
 }
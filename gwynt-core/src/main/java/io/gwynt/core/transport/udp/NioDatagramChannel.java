@@ -23,6 +23,11 @@ public class NioDatagramChannel extends AbstractSelectableChannel<DatagramChanne
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public void close() throws IOException {
         channel.close();
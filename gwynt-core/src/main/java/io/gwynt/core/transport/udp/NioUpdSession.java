@@ -2,10 +2,13 @@ package io.gwynt.core.transport.udp;
 
 import io.gwynt.core.Endpoint;
 import io.gwynt.core.IoSessionStatus;
+import io.gwynt.core.WriteCallback;
+import io.gwynt.core.exception.ClosedSessionException;
 import io.gwynt.core.transport.AbstractIoSession;
-import io.gwynt.core.util.ByteBufferAllocator;
 import io.gwynt.core.transport.Channel;
 import io.gwynt.core.transport.Dispatcher;
+import io.gwynt.core.util.ByteBufferAllocator;
+import io.gwynt.core.util.PooledByteBuffer;
 
 import java.io.IOException;
 import java.net.SocketAddress;
@@ -18,53 +21,62 @@ import java.util.WeakHashMap;
 
 public class NioUpdSession extends AbstractIoSession<DatagramChannel> {
 
+    private static final int MAX_DATAGRAM_SIZE = 65536;
+    private static final int MAX_WRITE_SPIN_COUNT = 16;
+    private static final int MAX_READS_PER_EVENT = 16;
+
     private Map<SocketAddress, RemoteNioUdpSession> address2session = Collections.synchronizedMap(new WeakHashMap<SocketAddress, RemoteNioUdpSession>());
 
     public NioUpdSession(Channel<DatagramChannel> channel, Endpoint endpoint) {
         super(channel, endpoint);
     }
 
+    /**
+     * Queues datagram. Callback is notified instead of callback of datagram, which must be either not set or the same.
+     */
     @Override
-    public void write(Object data) {
+    public void write(Object data, WriteCallback callback) {
         if (!(data instanceof Datagram)) {
             throw new IllegalArgumentException("Data is not instanceof " + Datagram.class.getCanonicalName());
         }
-        if (status.get() != IoSessionStatus.PENDING_CLOSE && status.get() != IoSessionStatus.CLOSED) {
-            writeQueue.add(data);
-            synchronized (registrationLock) {
-                if (registered.get()) {
-                    dispatcher.get().modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
-                }
+        if (callback == null) {
+            throw new IllegalArgumentException("callback");
+        }
+        Datagram datagram = (Datagram) data;
+        if (callback != WriteCallback.VOID && callback != datagram.getCallback()) {
+            if (datagram.getCallback() != WriteCallback.VOID) {
+                throw new IllegalArgumentException("Datagram has different callback");
             }
+            datagram = new Datagram(datagram.getRecipient(), datagram.getMessage(), callback);
+        }
+        if (isOpened()) {
+            incrementPendingWriteBytes(datagram.getMessage().remaining());
+            enqueueWrite(datagram);
+        } else {
+            notifyWriteError(datagram.getCallback(), new ClosedSessionException());
         }
     }
 
     @Override
     public void close() {
-        if (status.get() != IoSessionStatus.PENDING_CLOSE && status.get() != IoSessionStatus.CLOSED) {
-            status.set(IoSessionStatus.PENDING_CLOSE);
-            synchronized (registrationLock) {
-                if (registered.get()) {
-                    dispatcher.get().modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
-                }
-            }
+        if (markPendingClose()) {
+            requestWrite();
         }
     }
 
     @Override
     public void onSessionUnregistered(Dispatcher dispatcher) {
-        synchronized (registrationLock) {
-            registered.set(false);
-            this.dispatcher.set(null);
-            pipeline.fireUnregistered();
-        }
-        if (status.get() == IoSessionStatus.PENDING_CLOSE) {
+        setRegistered(false);
+        this.dispatcher = null;
+        pipeline.fireUnregistered();
+        if (getStatus() == IoSessionStatus.PENDING_CLOSE) {
             try {
                 channel.close();
             } catch (IOException e) {
                 // ignore
             }
-            boolean wasClosed = status.getAndSet(IoSessionStatus.CLOSED) == IoSessionStatus.CLOSED;
+            boolean wasClosed = getAndSetStatus(IoSessionStatus.CLOSED) == IoSessionStatus.CLOSED;
+            failPendingWrites();
             if (!wasClosed) {
                 pipeline.fireClose();
             }
@@ -73,57 +85,90 @@ public class NioUpdSession extends AbstractIoSession<DatagramChannel> {
 
     @Override
     public void onSessionRegistered(Dispatcher dispatcher) {
-        synchronized (registrationLock) {
-            registered.set(true);
-            this.dispatcher.set(dispatcher);
-            pipeline.fireRegistered();
-        }
-        if (status.get() != IoSessionStatus.PENDING_CLOSE) {
-            boolean wasActive = status.getAndSet(IoSessionStatus.OPENED) == IoSessionStatus.OPENED;
+        this.dispatcher = dispatcher;
+        setRegistered(true);
+        pipeline.fireRegistered();
+        if (getStatus() != IoSessionStatus.PENDING_CLOSE) {
+            boolean wasActive = getAndSetStatus(IoSessionStatus.OPENED) == IoSessionStatus.OPENED;
             if (!wasActive) {
                 pipeline.fireOpen();
             }
-            if (!writeQueue.isEmpty()) {
-                this.dispatcher.get().modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
+            if (hasPendingWrites()) {
+                requestWrite();
             }
         }
     }
 
+    /**
+     * Receives up to {@link #MAX_READS_PER_EVENT} datagrams.
+     * Consecutive datagrams from the same sender form single burst which ends with read complete event of its session.
+     */
     @Override
     public void onSelectedForRead(SelectionKey key) throws IOException {
         DatagramChannel channel = javaChannel();
-        ByteBuffer readBuffer = ByteBufferAllocator.allocate(150000);
+        RemoteNioUdpSession burstSession = null;
+
+        for (int i = 0; i < MAX_READS_PER_EVENT; i++) {
+            ByteBuffer readBuffer = ByteBufferAllocator.allocate(MAX_DATAGRAM_SIZE);
 
-        SocketAddress address = channel.receive(readBuffer);
+            SocketAddress address = channel.receive(readBuffer);
+            if (address == null) {
+                ByteBufferAllocator.release(readBuffer);
+                break;
+            }
 
-        if (!address2session.containsKey(address)) {
-            RemoteNioUdpSession session = new RemoteNioUdpSession(this, address);
-            address2session.put(address, session);
+            RemoteNioUdpSession session = address2session.get(address);
+            if (session == null) {
+                session = new RemoteNioUdpSession(this, address);
+                address2session.put(address, session);
+            }
+
+            if (burstSession != null && burstSession != session) {
+                burstSession.fireReadComplete();
+            }
+            burstSession = session;
+
+            readBuffer.flip();
+            session.fireMessageReceived(PooledByteBuffer.wrap(readBuffer));
         }
 
-        readBuffer.flip();
-        byte[] message = new byte[readBuffer.limit()];
-        readBuffer.get(message);
-        readBuffer.clear();
-        address2session.get(address).fireMessageReceived(message);
-        ByteBufferAllocator.release(readBuffer);
+        if (burstSession != null) {
+            burstSession.fireReadComplete();
+        }
     }
 
     @Override
     public void onSelectedForWrite(SelectionKey key) throws IOException {
-        Datagram data = (Datagram) writeQueue.peek();
+        doWrite();
+    }
 
-        if (data != null) {
-            DatagramChannel channel = javaChannel();
-            channel.send(data.getMessage(), data.getRecipient());
-            if (!data.getMessage().hasRemaining()) {
-                writeQueue.poll();
+    @Override
+    protected void processWriteQueue() {
+        setWritePending(false);
+
+        DatagramChannel channel = javaChannel();
+        for (int i = 0; i < MAX_WRITE_SPIN_COUNT && drainWriteQueue() > 0; i++) {
+            Datagram data = (Datagram) peekFlushedWrite();
+            try {
+                int bytesSent = channel.send(data.getMessage(), data.getRecipient());
+                if (bytesSent > 0) {
+                    decrementPendingWriteBytes(bytesSent);
+                }
+            } catch (IOException e) {
+                onExceptionCaught(e);
+                return;
+            }
+            if (data.getMessage().hasRemaining()) {
+                break;
             }
+            pollFlushedWrite();
+            notifyWriteComplete(data.getCallback());
         }
 
-        if (!writeQueue.isEmpty()) {
-            dispatcher.get().modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
-        } else if (status.get() == IoSessionStatus.PENDING_CLOSE) {
+        if (drainWriteQueue() > 0) {
+            setWritePending(true);
+            dispatcher.modifyRegistration(javaChannel(), SelectionKey.OP_WRITE);
+        } else if (getStatus() == IoSessionStatus.PENDING_CLOSE) {
             closeConnection();
         }
     }
@@ -134,12 +179,29 @@ public class NioUpdSession extends AbstractIoSession<DatagramChannel> {
         closeConnection();
     }
 
+    @Override
+    protected void fireWritabilityChanged() {
+        super.fireWritabilityChanged();
+        synchronized (address2session) {
+            for (RemoteNioUdpSession session : address2session.values()) {
+                session.pipeline.fireWritabilityChanged();
+            }
+        }
+    }
+
+    @Override
+    protected void failWrite(Object entry, Throwable cause) {
+        Datagram data = (Datagram) entry;
+        decrementPendingWriteBytes(data.getMessage().remaining());
+        notifyWriteError(data.getCallback(), cause);
+    }
+
     private void closeConnection() {
-        status.set(IoSessionStatus.PENDING_CLOSE);
-        if (!writeQueue.isEmpty()) {
-            writeQueue.clear();
+        if (!markClosing()) {
+            return;
         }
-        dispatcher.get().unregister(javaChannel());
+        failPendingWrites();
+        dispatcher.unregister(javaChannel());
     }
 
     private static class RemoteNioUdpSession extends NioUpdSession {
@@ -154,8 +216,19 @@ public class NioUpdSession extends AbstractIoSession<DatagramChannel> {
         }
 
         @Override
-        public void write(Object data) {
-            parent.write(new Datagram(recipient, ByteBuffer.wrap((byte[]) data)));
+        public void write(Object data, WriteCallback callback) {
+            if (!(data instanceof byte[])) {
+                throw new IllegalArgumentException("Data is not instanceof byte[]");
+            }
+            if (callback == null) {
+                throw new IllegalArgumentException("callback");
+            }
+            parent.write(new Datagram(recipient, ByteBuffer.wrap((byte[]) data), callback));
+        }
+
+        @Override
+        public void flush() {
+            parent.flush();
         }
 
         @Override
@@ -168,13 +241,27 @@ public class NioUpdSession extends AbstractIoSession<DatagramChannel> {
             return parent.isRegistered();
         }
 
+        @Override
+        public boolean isWritable() {
+            return parent.isWritable();
+        }
+
+        @Override
+        public Dispatcher getDispatcher() {
+            return parent != null ? parent.getDispatcher() : null;
+        }
+
         @Override
         public SocketAddress getRemoteAddress() {
             return recipient;
         }
 
-        private void fireMessageReceived(byte[] message) {
+        private void fireMessageReceived(PooledByteBuffer message) {
             pipeline.fireMessageReceived(message);
         }
+
+        private void fireReadComplete() {
+            pipeline.fireReadComplete();
+        }
     }
 }
@@ -1,36 +1,279 @@
 package io.gwynt.core.util;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * Pool of direct {@link java.nio.ByteBuffer}s split into power of two size classes. <br/>
+ * Every allocating thread keeps small cache of released buffers, which is backed by shared arena.
+ * {@link io.gwynt.core.util.PooledByteBuffer} remembers cache of thread which wrapped it. If it is released by other thread,
+ * it is pushed to lock-free stack of that cache without allocation and is taken back by cache owner when its cache runs empty.
+ * Other buffers released by threads which never allocate go directly to shared arena.
+ * Memory retained by arena and by each thread cache is capped, buffers exceeding caps are left to garbage collector.
+ */
 public final class ByteBufferAllocator {
 
-    private static final ByteBufferPool BYTE_BUFFER_POOL = new ByteBufferPool();
+    private static final int MIN_SIZE_CLASS_SHIFT = 9;
+    private static final int MAX_SIZE_CLASS_SHIFT = 18;
+    private static final int SIZE_CLASSES_COUNT = MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1;
 
+    private static final Arena ARENA = new Arena();
+    private static final ThreadLocal<ThreadCache> THREAD_CACHE = new ThreadLocal<>();
+
+    private static volatile long maxArenaBytes = 64 * 1024 * 1024;
+    private static volatile int maxThreadCacheBytes = 2 * 1024 * 1024;
+
+    private ByteBufferAllocator() {
+    }
+
+    /**
+     * Allocates direct buffer with capacity at least of requested size and limit set to requested size
+     *
+     * @param capacity requested size
+     * @return pooled or newly allocated buffer
+     */
     public static ByteBuffer allocate(int capacity) {
-        return BYTE_BUFFER_POOL.allocate(capacity);
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity");
+        }
+
+        int sizeClass = sizeClass(capacity);
+        if (sizeClass < 0) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+
+        ThreadCache cache = THREAD_CACHE.get();
+        if (cache == null) {
+            cache = new ThreadCache();
+            THREAD_CACHE.set(cache);
+        }
+
+        ByteBuffer buffer = cache.poll(sizeClass);
+        if (buffer == null && cache.scavenge()) {
+            buffer = cache.poll(sizeClass);
+        }
+        if (buffer == null) {
+            buffer = ARENA.poll(sizeClass);
+        }
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(1 << (sizeClass + MIN_SIZE_CLASS_SHIFT));
+        }
+        buffer.clear();
+        buffer.limit(capacity);
+        return buffer;
     }
 
     public static void release(ByteBuffer byteBuffer) {
-        BYTE_BUFFER_POOL.release(byteBuffer);
+        int sizeClass = pooledSizeClass(byteBuffer);
+        if (sizeClass < 0) {
+            return;
+        }
+
+        byteBuffer.clear();
+        ThreadCache cache = THREAD_CACHE.get();
+        if (cache == null || !cache.offer(sizeClass, byteBuffer)) {
+            ARENA.offer(sizeClass, byteBuffer);
+        }
     }
 
-    private static final class ByteBufferPool {
+    /**
+     * Returns buffer of {@link io.gwynt.core.util.PooledByteBuffer} to cache of thread which wrapped it
+     */
+    static void release(PooledByteBuffer pooledByteBuffer) {
+        ThreadCache owner = pooledByteBuffer.owner;
+        if (owner == null || owner == THREAD_CACHE.get()) {
+            release(pooledByteBuffer.pooled);
+        } else {
+            owner.pushForeign(pooledByteBuffer);
+        }
+    }
 
-        private Deque<ByteBuffer> buffers = new ConcurrentLinkedDeque<>();
+    /**
+     * @return cache of current thread or null if thread has not allocated buffers yet
+     */
+    static ThreadCache threadCache() {
+        return THREAD_CACHE.get();
+    }
 
-        public ByteBuffer allocate(int capacity) {
-            ByteBuffer buffer = buffers.pollFirst();
-            if (buffer == null || buffer.capacity() < capacity) {
-                buffer = ByteBuffer.allocateDirect(capacity);
+    /**
+     * Moves buffers cached by current thread to shared arena. Should be called by allocating threads before termination.
+     */
+    public static void freeThreadCache() {
+        ThreadCache cache = THREAD_CACHE.get();
+        if (cache != null) {
+            THREAD_CACHE.remove();
+            cache.free();
+        }
+    }
+
+    public static long getMaxArenaBytes() {
+        return maxArenaBytes;
+    }
+
+    public static void setMaxArenaBytes(long maxArenaBytes) {
+        if (maxArenaBytes < 0) {
+            throw new IllegalArgumentException("maxArenaBytes");
+        }
+        ByteBufferAllocator.maxArenaBytes = maxArenaBytes;
+    }
+
+    public static int getMaxThreadCacheBytes() {
+        return maxThreadCacheBytes;
+    }
+
+    public static void setMaxThreadCacheBytes(int maxThreadCacheBytes) {
+        if (maxThreadCacheBytes < 0) {
+            throw new IllegalArgumentException("maxThreadCacheBytes");
+        }
+        ByteBufferAllocator.maxThreadCacheBytes = maxThreadCacheBytes;
+    }
+
+    private static int sizeClass(int capacity) {
+        if (capacity > 1 << MAX_SIZE_CLASS_SHIFT) {
+            return -1;
+        }
+        if (capacity <= 1 << MIN_SIZE_CLASS_SHIFT) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SIZE_CLASS_SHIFT;
+    }
+
+    private static int pooledSizeClass(ByteBuffer byteBuffer) {
+        int capacity = byteBuffer.capacity();
+        if (!byteBuffer.isDirect() || Integer.bitCount(capacity) != 1) {
+            return -1;
+        }
+        int shift = Integer.numberOfTrailingZeros(capacity);
+        if (shift < MIN_SIZE_CLASS_SHIFT || shift > MAX_SIZE_CLASS_SHIFT) {
+            return -1;
+        }
+        return shift - MIN_SIZE_CLASS_SHIFT;
+    }
+
+    private static final class Arena {
+
+        private final AtomicLong retainedBytes = new AtomicLong();
+        private final Deque<ByteBuffer>[] buffers;
+
+        @SuppressWarnings("unchecked")
+        private Arena() {
+            buffers = new Deque[SIZE_CLASSES_COUNT];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = new ConcurrentLinkedDeque<>();
+            }
+        }
+
+        public ByteBuffer poll(int sizeClass) {
+            ByteBuffer buffer = buffers[sizeClass].pollFirst();
+            if (buffer != null) {
+                retainedBytes.addAndGet(-buffer.capacity());
+            }
+            return buffer;
+        }
+
+        public void offer(int sizeClass, ByteBuffer buffer) {
+            int capacity = buffer.capacity();
+            if (retainedBytes.addAndGet(capacity) > maxArenaBytes) {
+                retainedBytes.addAndGet(-capacity);
+                return;
+            }
+            buffers[sizeClass].addFirst(buffer);
+        }
+    }
+
+    static final class ThreadCache {
+
+        private final AtomicReference<PooledByteBuffer> foreignReleases = new AtomicReference<>();
+        private final Deque<ByteBuffer>[] buffers;
+        private int retainedBytes;
+        private volatile boolean freed;
+
+        @SuppressWarnings("unchecked")
+        private ThreadCache() {
+            buffers = new Deque[SIZE_CLASSES_COUNT];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = new ArrayDeque<>();
+            }
+        }
+
+        public ByteBuffer poll(int sizeClass) {
+            ByteBuffer buffer = buffers[sizeClass].pollFirst();
+            if (buffer != null) {
+                retainedBytes -= buffer.capacity();
             }
             return buffer;
         }
 
-        public void release(ByteBuffer byteBuffer) {
-            byteBuffer.clear();
-            buffers.addLast(byteBuffer);
+        public boolean offer(int sizeClass, ByteBuffer buffer) {
+            int capacity = buffer.capacity();
+            if (retainedBytes + capacity > maxThreadCacheBytes) {
+                return false;
+            }
+            retainedBytes += capacity;
+            buffers[sizeClass].addFirst(buffer);
+            return true;
+        }
+
+        /**
+         * Pushes buffer released by foreign thread. Buffers pushed after owner freed its cache go to shared arena.
+         */
+        private void pushForeign(PooledByteBuffer pooledByteBuffer) {
+            PooledByteBuffer head;
+            do {
+                head = foreignReleases.get();
+                pooledByteBuffer.next = head;
+            } while (!foreignReleases.compareAndSet(head, pooledByteBuffer));
+
+            if (freed) {
+                freeForeign();
+            }
+        }
+
+        /**
+         * Moves buffers released by foreign threads to this cache, buffers exceeding its cap go to shared arena
+         *
+         * @return true if any buffer was moved
+         */
+        private boolean scavenge() {
+            PooledByteBuffer pooledByteBuffer = foreignReleases.getAndSet(null);
+            if (pooledByteBuffer == null) {
+                return false;
+            }
+            while (pooledByteBuffer != null) {
+                PooledByteBuffer next = pooledByteBuffer.next;
+                pooledByteBuffer.next = null;
+                release(pooledByteBuffer.pooled);
+                pooledByteBuffer = next;
+            }
+            return true;
+        }
+
+        private void freeForeign() {
+            PooledByteBuffer pooledByteBuffer = foreignReleases.getAndSet(null);
+            while (pooledByteBuffer != null) {
+                PooledByteBuffer next = pooledByteBuffer.next;
+                pooledByteBuffer.next = null;
+                ByteBuffer buffer = pooledByteBuffer.pooled;
+                buffer.clear();
+                ARENA.offer(pooledSizeClass(buffer), buffer);
+                pooledByteBuffer = next;
+            }
+        }
+
+        public void free() {
+            freed = true;
+            freeForeign();
+            for (int i = 0; i < buffers.length; i++) {
+                ByteBuffer buffer;
+                while ((buffer = buffers[i].pollFirst()) != null) {
+                    ARENA.offer(i, buffer);
+                }
+            }
+            retainedBytes = 0;
         }
     }
 }
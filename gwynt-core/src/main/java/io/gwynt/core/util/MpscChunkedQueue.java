@@ -0,0 +1,105 @@
+package io.gwynt.core.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Unbounded lock-free multi producer single consumer queue. <br/>
+ * Elements are stored in linked array chunks, so offering does not allocate except on chunk boundaries.
+ * {@link #poll()} and {@link #isEmpty()} must be called only by the single consumer thread.
+ */
+public final class MpscChunkedQueue<E> {
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final AtomicLong producerIndex = new AtomicLong();
+    private volatile Chunk producerChunk;
+
+    private long consumerIndex;
+    private volatile Chunk consumerChunk;
+
+    public MpscChunkedQueue() {
+        Chunk chunk = new Chunk(0);
+        producerChunk = chunk;
+        consumerChunk = chunk;
+    }
+
+    public void offer(E e) {
+        if (e == null) {
+            throw new IllegalArgumentException("e");
+        }
+
+        long index = producerIndex.getAndIncrement();
+        long chunkIndex = index >>> CHUNK_SHIFT;
+
+        Chunk chunk = producerChunk;
+        if (chunk.index > chunkIndex) {
+            // Hint has already moved past our chunk; consumer can not leave it before our slot is filled
+            chunk = consumerChunk;
+        }
+        while (chunk.index < chunkIndex) {
+            chunk = chunk.next();
+        }
+        if (producerChunk.index < chunkIndex) {
+            producerChunk = chunk;
+        }
+
+        chunk.slots.set((int) (index & CHUNK_MASK), e);
+    }
+
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long index = consumerIndex;
+        Chunk chunk = consumerChunk;
+        if (chunk.index != index >>> CHUNK_SHIFT) {
+            Chunk next = chunk.next;
+            if (next == null) {
+                return null;
+            }
+            consumerChunk = chunk = next;
+        }
+
+        int offset = (int) (index & CHUNK_MASK);
+        Object e = chunk.slots.get(offset);
+        if (e == null) {
+            return null;
+        }
+        chunk.slots.lazySet(offset, null);
+        consumerIndex = index + 1;
+        return (E) e;
+    }
+
+    /**
+     * @return {@code true} if no element was offered since last successful poll, elements being offered right now count as present
+     */
+    public boolean isEmpty() {
+        return producerIndex.get() == consumerIndex;
+    }
+
+    private static final class Chunk {
+
+        private static final AtomicReferenceFieldUpdater<Chunk, Chunk> NEXT_UPDATER = AtomicReferenceFieldUpdater.newUpdater(Chunk.class, Chunk.class, "next");
+
+        private final long index;
+        private final AtomicReferenceArray<Object> slots = new AtomicReferenceArray<>(CHUNK_SIZE);
+        private volatile Chunk next;
+
+        private Chunk(long index) {
+            this.index = index;
+        }
+
+        private Chunk next() {
+            Chunk next = this.next;
+            if (next == null) {
+                next = new Chunk(index + 1);
+                if (!NEXT_UPDATER.compareAndSet(this, null, next)) {
+                    next = this.next;
+                }
+            }
+            return next;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.gwynt.core.util;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+public final class PooledByteBuffer implements ReferenceCounted {
+
+    private static final AtomicIntegerFieldUpdater<PooledByteBuffer> REF_COUNT_UPDATER = AtomicIntegerFieldUpdater.newUpdater(PooledByteBuffer.class, "refCount");
+
+    final ByteBuffer pooled;
+    final ByteBufferAllocator.ThreadCache owner;
+    PooledByteBuffer next;
+
+    private final ByteBuffer buffer;
+    private volatile int refCount = 1;
+
+    private PooledByteBuffer(ByteBuffer pooled, ByteBuffer buffer, ByteBufferAllocator.ThreadCache owner) {
+        this.pooled = pooled;
+        this.buffer = buffer;
+        this.owner = owner;
+    }
+
+    /**
+     * Wraps readable bytes of pooled {@link java.nio.ByteBuffer} without copying them.
+     * Pooled buffer is returned to {@link io.gwynt.core.util.ByteBufferAllocator} cache of wrapping thread when reference count reaches zero,
+     * so buffer should be wrapped by thread which allocated it.
+     *
+     * @param pooled flipped buffer obtained from {@link io.gwynt.core.util.ByteBufferAllocator}
+     * @return new {@link io.gwynt.core.util.PooledByteBuffer} with reference count of one
+     */
+    public static PooledByteBuffer wrap(ByteBuffer pooled) {
+        return new PooledByteBuffer(pooled, pooled.slice(), ByteBufferAllocator.threadCache());
+    }
+
+    public ByteBuffer byteBuffer() {
+        ensureAccessible();
+        return buffer;
+    }
+
+    public int readableBytes() {
+        ensureAccessible();
+        return buffer.remaining();
+    }
+
+    public byte[] toArray() {
+        ensureAccessible();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public int refCount() {
+        return refCount;
+    }
+
+    @Override
+    public PooledByteBuffer retain() {
+        for (; ; ) {
+            int refCount = this.refCount;
+            if (refCount == 0) {
+                throw new IllegalStateException("Buffer is already released");
+            }
+            if (REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount + 1)) {
+                return this;
+            }
+        }
+    }
+
+    @Override
+    public boolean release() {
+        for (; ; ) {
+            int refCount = this.refCount;
+            if (refCount == 0) {
+                throw new IllegalStateException("Buffer is already released");
+            }
+            if (REF_COUNT_UPDATER.compareAndSet(this, refCount, refCount - 1)) {
+                if (refCount == 1) {
+                    ByteBufferAllocator.release(this);
+                    return true;
+                }
+                return false;
+            }
+        }
+    }
+
+    private void ensureAccessible() {
+        if (refCount == 0) {
+            throw new IllegalStateException("Buffer is already released");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(refCount: " + refCount + ", " + buffer + ")";
+    }
+}
@@ -0,0 +1,35 @@
+package io.gwynt.core.util;
+
+/**
+ * Predicts size of next read from recent read history. <br/>
+ * Size grows immediately after read which filled whole buffer and shrinks after two consecutive reads which would fit into smaller buffer.
+ */
+public final class RecvBufferSizePredictor {
+
+    private static final int MIN_SIZE_SHIFT = 9;
+    private static final int MAX_SIZE_SHIFT = 16;
+    private static final int INITIAL_SIZE_SHIFT = 11;
+
+    private int sizeShift = INITIAL_SIZE_SHIFT;
+    private boolean decreaseNow;
+
+    public int nextReadSize() {
+        return 1 << sizeShift;
+    }
+
+    public void record(int bytesRead) {
+        if (bytesRead <= 1 << (sizeShift - 1)) {
+            if (decreaseNow) {
+                sizeShift = Math.max(sizeShift - 1, MIN_SIZE_SHIFT);
+                decreaseNow = false;
+            } else {
+                decreaseNow = true;
+            }
+        } else if (bytesRead >= 1 << sizeShift) {
+            sizeShift = Math.min(sizeShift + 1, MAX_SIZE_SHIFT);
+            decreaseNow = false;
+        } else {
+            decreaseNow = false;
+        }
+    }
+}
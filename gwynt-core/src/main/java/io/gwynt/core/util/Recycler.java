@@ -0,0 +1,132 @@
+package io.gwynt.core.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread local pool of reusable objects. <br/>
+ * Objects are taken from pool of current thread and returned to pool of thread which created them, no matter which thread recycles them.
+ * Objects recycled by foreign threads are pushed to lock-free stack and moved to owner's pool when it runs out of objects.
+ * Recycling never allocates.
+ *
+ * @param <T> type of pooled objects
+ */
+public abstract class Recycler<T> {
+
+    private static final int DEFAULT_MAX_CAPACITY = 4096;
+
+    private final int maxCapacity;
+    private final ThreadLocal<Stack<T>> stacks = new ThreadLocal<Stack<T>>() {
+        @Override
+        protected Stack<T> initialValue() {
+            return new Stack<>(Thread.currentThread(), maxCapacity);
+        }
+    };
+
+    protected Recycler() {
+        this(DEFAULT_MAX_CAPACITY);
+    }
+
+    /**
+     * @param maxCapacity max count of objects pooled by each thread
+     */
+    protected Recycler(int maxCapacity) {
+        if (maxCapacity < 0) {
+            throw new IllegalArgumentException("maxCapacity");
+        }
+        this.maxCapacity = maxCapacity;
+    }
+
+    /**
+     * @return pooled or newly created object
+     */
+    public final T get() {
+        Stack<T> stack = stacks.get();
+        Handle<T> handle = stack.pop();
+        if (handle == null) {
+            handle = new Handle<>(stack);
+            handle.value = newObject(handle);
+        }
+        return handle.value;
+    }
+
+    /**
+     * Creates new object bound to handle, object should keep the handle and call {@link Handle#recycle()} when it is no longer used
+     */
+    protected abstract T newObject(Handle<T> handle);
+
+    public static final class Handle<T> {
+
+        private final Stack<T> stack;
+        private T value;
+        private Handle<T> next;
+
+        private Handle(Stack<T> stack) {
+            this.stack = stack;
+        }
+
+        /**
+         * Returns object to pool. Object must not be used after it is recycled.
+         */
+        public void recycle() {
+            stack.push(this);
+        }
+    }
+
+    private static final class Stack<T> {
+
+        private final Thread thread;
+        private final int maxCapacity;
+        private final AtomicReference<Handle<T>> foreignHandles = new AtomicReference<>();
+        @SuppressWarnings("unchecked")
+        private Handle<T>[] handles = new Handle[16];
+        private int size;
+
+        private Stack(Thread thread, int maxCapacity) {
+            this.thread = thread;
+            this.maxCapacity = maxCapacity;
+        }
+
+        private Handle<T> pop() {
+            if (size == 0 && !scavenge()) {
+                return null;
+            }
+            Handle<T> handle = handles[--size];
+            handles[size] = null;
+            return handle;
+        }
+
+        private void push(Handle<T> handle) {
+            if (Thread.currentThread() == thread) {
+                pushLocal(handle);
+            } else {
+                Handle<T> head;
+                do {
+                    head = foreignHandles.get();
+                    handle.next = head;
+                } while (!foreignHandles.compareAndSet(head, handle));
+            }
+        }
+
+        private void pushLocal(Handle<T> handle) {
+            if (size == maxCapacity) {
+                return;
+            }
+            if (size == handles.length) {
+                handles = Arrays.copyOf(handles, Math.min(size << 1, maxCapacity));
+            }
+            handles[size++] = handle;
+        }
+
+        private boolean scavenge() {
+            Handle<T> handle = foreignHandles.getAndSet(null);
+            while (handle != null) {
+                Handle<T> next = handle.next;
+                handle.next = null;
+                pushLocal(handle);
+                handle = next;
+            }
+            return size > 0;
+        }
+    }
+}
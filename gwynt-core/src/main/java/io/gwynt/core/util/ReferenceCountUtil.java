@@ -0,0 +1,18 @@
+package io.gwynt.core.util;
+
+public final class ReferenceCountUtil {
+
+    private ReferenceCountUtil() {
+    }
+
+    public static <T> T retain(T message) {
+        if (message instanceof ReferenceCounted) {
+            ((ReferenceCounted) message).retain();
+        }
+        return message;
+    }
+
+    public static boolean release(Object message) {
+        return message instanceof ReferenceCounted && ((ReferenceCounted) message).release();
+    }
+}
@@ -0,0 +1,25 @@
+package io.gwynt.core.util;
+
+public interface ReferenceCounted {
+
+    /**
+     * Returns current reference count
+     *
+     * @return reference count
+     */
+    int refCount();
+
+    /**
+     * Increases reference count by one
+     *
+     * @return current object
+     */
+    ReferenceCounted retain();
+
+    /**
+     * Decreases reference count by one and deallocates object if reference count reaches zero
+     *
+     * @return true if object was deallocated
+     */
+    boolean release();
+}
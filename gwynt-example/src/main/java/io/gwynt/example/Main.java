@@ -4,8 +4,10 @@ import io.gwynt.core.AbstractIoHandler;
 import io.gwynt.core.Endpoint;
 import io.gwynt.core.TcpEndpoint;
 import io.gwynt.core.UdpEndpoint;
+import io.gwynt.core.WriteCallback;
 import io.gwynt.core.pipeline.IoHandlerContext;
 import io.gwynt.core.transport.tcp.NioTcpSession;
+import io.gwynt.core.util.PooledByteBuffer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,25 +25,28 @@ public class Main {
         new UdpEndpoint().setScheduler(tcpEndpoint.getScheduler()).addHandler(sc).addHandler(mh).bind(3001);
     }
 
-    private static class StringConverter extends AbstractIoHandler<byte[], String> {
+    private static class StringConverter extends AbstractIoHandler<PooledByteBuffer, String> {
 
         private Charset charset = Charset.forName("UTF-8");
 
         @Override
-        public void onMessageReceived(IoHandlerContext context, byte[] message) {
-            ByteBuffer buffer = ByteBuffer.wrap(message);
-            CharBuffer charBuffer = charset.decode(buffer);
-            buffer.clear();
+        public void onMessageReceived(IoHandlerContext context, PooledByteBuffer message) {
+            CharBuffer charBuffer;
+            try {
+                charBuffer = charset.decode(message.byteBuffer());
+            } finally {
+                message.release();
+            }
             context.fireMessageReceived(charBuffer.toString());
         }
 
         @Override
-        public void onMessageSent(IoHandlerContext context, String message) {
+        public void onMessageSent(IoHandlerContext context, String message, WriteCallback callback) {
             ByteBuffer buffer = charset.encode(message);
             byte[] messageBytes = new byte[buffer.limit()];
             buffer.get(messageBytes);
             buffer.clear();
-            context.fireMessageSent(messageBytes);
+            context.fireMessageSent(messageBytes, callback);
         }
     }
 
@@ -52,7 +57,7 @@ public class Main {
         @Override
         public void onMessageReceived(IoHandlerContext context, String message) {
             context.fireMessageSent("HTTP/1.1 200 OK\r\nContent-Type: text/plain; charset=utf-8\r\n\r\n");
-            context.fireMessageSent(new Date().toString() + "\r\n");
+            context.fireMessageSentAndFlush(new Date().toString() + "\r\n");
             if (context.getIoSession() instanceof NioTcpSession) {
                 context.fireClosing();
             }
@@ -0,0 +1,79 @@
+package io.gwynt.example.benchmark;
+
+import io.gwynt.core.scheduler.EventScheduler;
+import io.gwynt.core.scheduler.EventSchedulerGroup;
+import io.gwynt.core.scheduler.MultiThreadedEventScheduler;
+import io.gwynt.core.scheduler.SingleThreadedEventScheduler;
+import io.gwynt.core.scheduler.VirtualThreadEventScheduler;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Compares throughput of {@link io.gwynt.core.scheduler.VirtualThreadEventScheduler} with platform thread schedulers. <br/>
+ * Events of many sessions are scheduled round robin. In mixed workload every tenth event of a session blocks for 2 ms,
+ * as handler calling JDBC or HTTP client would, in CPU workload no event blocks and each session gets 20 times more events.
+ * Optional arguments are count of sessions (100 by default) and count of events per session in mixed workload (1000 by default).
+ */
+public class SchedulerThroughput {
+
+    private static final int BLOCKING_EVERY = 10;
+    private static final long BLOCKING_MILLIS = 2;
+    private static final int CPU_EVENTS_FACTOR = 20;
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int eventsPerSession = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+        System.out.println("virtual threads supported: " + VirtualThreadEventScheduler.isVirtualThreadsSupported());
+        for (int round = 0; round < 2; round++) {
+            for (boolean blocking : new boolean[]{true, false}) {
+                run("single-threaded ", new SingleThreadedEventScheduler(), blocking, sessions, eventsPerSession);
+                run("multi-threaded/4", new MultiThreadedEventScheduler(4), blocking, sessions, eventsPerSession);
+                run("virtual thread  ", new VirtualThreadEventScheduler(), blocking, sessions, eventsPerSession);
+            }
+        }
+    }
+
+    private static void run(String name, EventScheduler scheduler, final boolean blocking, int sessions, int eventsPerSession) throws Exception {
+        if (!blocking) {
+            eventsPerSession *= CPU_EVENTS_FACTOR;
+        }
+        scheduler.start();
+
+        // Groups ignore session when assigning scheduler, so one scheduler is taken for each simulated session
+        EventScheduler[] sessionSchedulers = new EventScheduler[sessions];
+        for (int i = 0; i < sessions; i++) {
+            sessionSchedulers[i] = scheduler instanceof EventSchedulerGroup ? ((EventSchedulerGroup) scheduler).forSession(null) : scheduler;
+        }
+
+        final CountDownLatch done = new CountDownLatch(sessions * eventsPerSession);
+        long start = System.nanoTime();
+        for (int i = 0; i < eventsPerSession; i++) {
+            final boolean block = blocking && i % BLOCKING_EVERY == 0;
+            Runnable event = new Runnable() {
+                @Override
+                public void run() {
+                    if (block) {
+                        try {
+                            Thread.sleep(BLOCKING_MILLIS);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    } else {
+                        Math.sqrt(System.nanoTime());
+                    }
+                    done.countDown();
+                }
+            };
+            for (EventScheduler sessionScheduler : sessionSchedulers) {
+                sessionScheduler.schedule(event);
+            }
+        }
+        done.await();
+        long millis = (System.nanoTime() - start) / 1000000;
+        scheduler.stop();
+
+        long events = (long) sessions * eventsPerSession;
+        System.out.println(String.format("%s %-5s: %d events in %d ms, %d events/s", name, blocking ? "mixed" : "cpu", events, millis, events * 1000 / Math.max(millis, 1)));
+    }
+}
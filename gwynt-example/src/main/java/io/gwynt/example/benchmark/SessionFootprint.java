@@ -0,0 +1,62 @@
+package io.gwynt.example.benchmark;
+
+import io.gwynt.core.AbstractIoHandler;
+import io.gwynt.core.TcpEndpoint;
+import io.gwynt.core.pipeline.IoHandlerContext;
+import io.gwynt.core.scheduler.InlineEventScheduler;
+import io.gwynt.core.transport.tcp.NioTcpSession;
+
+/**
+ * Measures heap retained by idle TCP session with 1, 3 and 10 handlers in pipeline. <br/>
+ * Sessions are created without channel, so the measurement needs no file descriptors and covers session, pipeline and contexts only.
+ * Run with enough heap, e.g. {@code -Xmx2g}; optional argument is count of sessions, 200000 by default.
+ */
+public class SessionFootprint {
+
+    private static final int[] HANDLER_COUNTS = {1, 3, 10};
+
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        for (int handlers : HANDLER_COUNTS) {
+            System.out.println(String.format("handlers %2d: %d retained bytes/session", handlers, measure(handlers, sessions)));
+        }
+    }
+
+    private static long measure(int handlers, int sessions) throws InterruptedException {
+        TcpEndpoint endpoint = new TcpEndpoint();
+        endpoint.setScheduler(new InlineEventScheduler());
+        for (int i = 0; i < handlers; i++) {
+            endpoint.addHandler(new PassThroughHandler());
+        }
+        // Initializes pipeline template and classes before measuring
+        new NioTcpSession(null, endpoint);
+
+        Object[] retained = new Object[sessions];
+        long before = usedMemory();
+        for (int i = 0; i < sessions; i++) {
+            retained[i] = new NioTcpSession(null, endpoint);
+        }
+        long after = usedMemory();
+        if (retained[sessions - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return (after - before) / sessions;
+    }
+
+    private static long usedMemory() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class PassThroughHandler extends AbstractIoHandler<Object, Object> {
+
+        @Override
+        public void onMessageReceived(IoHandlerContext context, Object message) {
+            context.fireMessageReceived(message);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package io.gwynt.example.benchmark;
+
+import io.gwynt.core.transport.NioDispatcher;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Counts selector wakeups caused by tasks scheduled to {@link io.gwynt.core.transport.NioDispatcher} from foreign threads. <br/>
+ * Dispatcher is run as is, which wakes selector only when it is about to block, and with selector woken up for every task,
+ * as it was done before wakeups were coalesced. Each wakeup is a write to selector wakeup pipe or eventfd,
+ * so wakeups are counted as write system calls of the process taken from {@code /proc/self/io} (Linux only).
+ * Optional arguments are count of threads and count of tasks per thread.
+ */
+public class WakeupCount {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int tasksPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 500000;
+
+        for (int round = 0; round < 2; round++) {
+            run("coalesced", new NioDispatcher(null), threads, tasksPerThread);
+            run("per task ", new NioDispatcher(null) {
+                @Override
+                protected void addTask(Runnable task) {
+                    super.addTask(task);
+                    selector.wakeup();
+                }
+            }, threads, tasksPerThread);
+        }
+    }
+
+    private static void run(String mode, final NioDispatcher dispatcher, int threads, final int tasksPerThread) throws Exception {
+        dispatcher.setName("gwynt-benchmark-dispatcher");
+        dispatcher.start();
+
+        final CountDownLatch done = new CountDownLatch(threads * tasksPerThread);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                done.countDown();
+            }
+        };
+
+        long writes = writeSyscalls();
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < tasksPerThread; j++) {
+                        dispatcher.schedule(task);
+                        if ((j & 63) == 0) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            }.start();
+        }
+        done.await();
+        long millis = (System.nanoTime() - start) / 1000000;
+        writes = writeSyscalls() - writes;
+        dispatcher.stop();
+
+        System.out.println(String.format("%s: %d tasks, %d wakeups, %d ms", mode, threads * tasksPerThread, writes, millis));
+    }
+
+    private static long writeSyscalls() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader("/proc/self/io"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("syscw:")) {
+                    return Long.parseLong(line.substring("syscw:".length()).trim());
+                }
+            }
+        }
+        throw new IOException("syscw is not reported by /proc/self/io");
+    }
+}
@@ -0,0 +1,140 @@
+package io.gwynt.example.check;
+
+import io.gwynt.core.scheduler.EventScheduler;
+import io.gwynt.core.scheduler.SingleThreadedEventScheduler;
+import io.gwynt.core.scheduler.Timeout;
+import io.gwynt.core.scheduler.TimerWheel;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Regression checks for {@link io.gwynt.core.scheduler.TimerWheel}. Exits with non-zero status on failure.
+ * <ul>
+ * <li>timeout A cancels timeout B of the same bucket, timeout C which follows B in that bucket must still expire on time</li>
+ * <li>cancelled timeout must not retain its task, and wheel must become empty on next tick</li>
+ * </ul>
+ */
+public class TimerWheelCancelCheck {
+
+    private static final long DELAY_MILLIS = 50;
+    private static final long MAX_LATENESS_MILLIS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        checkCancelInBucket();
+        checkCancelReleasesTask();
+    }
+
+    private static void checkCancelInBucket() throws Exception {
+        final SingleThreadedEventScheduler scheduler = new SingleThreadedEventScheduler();
+        scheduler.start();
+
+        final AtomicReference<Timeout> b = new AtomicReference<>();
+        final AtomicBoolean bExpired = new AtomicBoolean();
+        final CountDownLatch cExpired = new CountDownLatch(1);
+        final long start = System.nanoTime();
+
+        // Timeouts are created in scheduler thread with equal deadline, so they are linked to the same bucket in order A, B, C
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        b.get().cancel();
+                    }
+                }, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                b.set(scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        bExpired.set(true);
+                    }
+                }, DELAY_MILLIS, TimeUnit.MILLISECONDS));
+                scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        cExpired.countDown();
+                    }
+                }, DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        });
+
+        boolean ok = cExpired.await(DELAY_MILLIS + MAX_LATENESS_MILLIS, TimeUnit.MILLISECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        scheduler.stop();
+
+        if (!ok) {
+            System.out.println("FAILED: C did not expire within " + (DELAY_MILLIS + MAX_LATENESS_MILLIS) + " ms after A cancelled B");
+            System.exit(1);
+        }
+        if (bExpired.get() || !b.get().isCancelled()) {
+            System.out.println("FAILED: cancelled timeout B expired");
+            System.exit(1);
+        }
+        System.out.println("OK: C expired after " + elapsed + " ms, B stayed cancelled");
+    }
+
+    private static void checkCancelReleasesTask() throws Exception {
+        // Wheel is driven by this thread
+        TimerWheel wheel = new TimerWheel(new CurrentThreadScheduler());
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+            }
+        };
+        WeakReference<Runnable> taskReference = new WeakReference<>(task);
+        Timeout timeout = wheel.newTimeout(task, 1, 0, TimeUnit.HOURS);
+        task = null;
+        timeout.cancel();
+
+        for (int i = 0; i < 10 && taskReference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        if (taskReference.get() != null) {
+            System.out.println("FAILED: cancelled timeout retains its task");
+            System.exit(1);
+        }
+
+        wheel.expireTimeouts(System.nanoTime() + TimerWheel.DEFAULT_TICK_DURATION);
+        if (!wheel.isEmpty()) {
+            System.out.println("FAILED: wheel is not empty after cancelled timeout was purged");
+            System.exit(1);
+        }
+        System.out.println("OK: cancelled timeout released its task, wheel is empty after next tick");
+    }
+
+    private static class CurrentThreadScheduler implements EventScheduler {
+
+        @Override
+        public boolean inSchedulerThread() {
+            return true;
+        }
+
+        @Override
+        public void schedule(Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Timeout scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+}
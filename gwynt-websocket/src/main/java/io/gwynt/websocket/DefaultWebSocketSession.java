@@ -1,5 +1,6 @@
 package io.gwynt.websocket;
 
+import io.gwynt.core.AttributeKey;
 import io.gwynt.core.IoSession;
 import io.gwynt.websocket.protocol.CloseFrame;
 import io.gwynt.websocket.protocol.Frame;
@@ -10,6 +11,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 
 public class DefaultWebSocketSession implements WebSocketSession {
 
+    public static final AttributeKey<DefaultWebSocketSession> SESSION_KEY = AttributeKey.valueOf(DefaultWebSocketSession.class.getName());
+
     private AtomicBoolean handshakeCompleted = new AtomicBoolean(false);
     private Handshake handshake;
 
@@ -20,7 +20,7 @@ public class WebSocketDispatcher implements IoHandler<Frame> {
 
     @Override
     public void onOpen(final IoSession ioSession) {
-        ioSession.attach(new DefaultWebSocketSession(ioSession, webSocketIoHandler));
+        ioSession.setAttribute(DefaultWebSocketSession.SESSION_KEY, new DefaultWebSocketSession(ioSession, webSocketIoHandler));
         ioSession.getPipeline().addCodec(webSocketSessionInitializer);
     }
 
@@ -49,7 +49,7 @@ public class WebSocketDispatcher implements IoHandler<Frame> {
 
     @Override
     public void onClose(IoSession ioSession) {
-        DefaultWebSocketSession defaultWebSocketConnection = (DefaultWebSocketSession) ioSession.attach(null);
+        DefaultWebSocketSession defaultWebSocketConnection = ioSession.setAttribute(DefaultWebSocketSession.SESSION_KEY, null);
         if (defaultWebSocketConnection.isHandshakeCompleted()) {
             webSocketIoHandler.onClose(defaultWebSocketConnection);
         }
@@ -61,6 +61,6 @@ public class WebSocketDispatcher implements IoHandler<Frame> {
     }
 
     private DefaultWebSocketSession getWebSocketConnection(IoSession ioSession) {
-        return (DefaultWebSocketSession) ioSession.attachment();
+        return ioSession.getAttribute(DefaultWebSocketSession.SESSION_KEY);
     }
 }
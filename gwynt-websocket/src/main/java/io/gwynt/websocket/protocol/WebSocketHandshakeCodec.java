@@ -101,7 +101,7 @@ public class WebSocketHandshakeCodec extends AbstractIoHandler<byte[], Handshake
     @Override
     public void onMessageReceived(IoHandlerContext context, byte[] message) {
         IoSession ioSession = context.getIoSession();
-        final DefaultWebSocketSession webSocketConnection = (DefaultWebSocketSession) ioSession.attachment();
+        final DefaultWebSocketSession webSocketConnection = ioSession.getAttribute(DefaultWebSocketSession.SESSION_KEY);
 
         try {
             Handshake clientHandshake = parseClientHandshake(message);